@@ -186,6 +186,10 @@ public class CuriosPaper extends JavaPlugin {
         return abilityEditor;
     }
 
+    public AbilityListener getAbilityListener() {
+        return abilityListener;
+    }
+
     @Override
     public void onDisable() {
         if (autoSaveTask != null) {
@@ -0,0 +1,165 @@
+package org.bg52.curiospaper.api;
+
+import org.bg52.curiospaper.CuriosPaper;
+import org.bg52.curiospaper.config.SlotConfiguration;
+import org.bg52.curiospaper.event.AccessoryLoadoutChangeEvent;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * A batch of accessory changes for one player, e.g.
+ * {@code api.edit(player).set("ring", 0, a).set("ring", 1, b).clear("belt").commit()}.
+ *
+ * Changes are only recorded until {@link #commit()}, which validates all of
+ * them, applies all or none, and fires a single
+ * {@link AccessoryLoadoutChangeEvent} for everything that actually changed.
+ */
+public class AccessoryTransaction {
+    private final CuriosPaper plugin;
+    private final UUID playerId;
+    // Pending edits per lowercase slot type, in the order they were first touched
+    private final Map<String, SlotEdit> edits = new LinkedHashMap<>();
+    private boolean committed = false;
+
+    private static class SlotEdit {
+        private final String slotType;
+        private boolean clearAll = false;
+        // Index -> new item, null to empty the slot
+        private final TreeMap<Integer, ItemStack> items = new TreeMap<>();
+
+        private SlotEdit(String slotType) {
+            this.slotType = slotType;
+        }
+    }
+
+    AccessoryTransaction(CuriosPaper plugin, UUID playerId) {
+        this.plugin = plugin;
+        this.playerId = playerId;
+    }
+
+    /**
+     * Puts an item at an index of a slot type; null or air empties the slot.
+     */
+    public AccessoryTransaction set(String slotType, int index, ItemStack item) {
+        if (index < 0) {
+            throw new IllegalArgumentException("Negative slot index: " + index);
+        }
+        edit(slotType).items.put(index, item == null || item.getType() == Material.AIR ? null : item);
+        return this;
+    }
+
+    /**
+     * Empties the slot at an index of a slot type.
+     */
+    public AccessoryTransaction clear(String slotType, int index) {
+        return set(slotType, index, null);
+    }
+
+    /**
+     * Empties every slot of a slot type. Items set afterwards in the same
+     * transaction are kept.
+     */
+    public AccessoryTransaction clear(String slotType) {
+        SlotEdit edit = edit(slotType);
+        edit.clearAll = true;
+        edit.items.clear();
+        return this;
+    }
+
+    private SlotEdit edit(String slotType) {
+        if (committed) {
+            throw new IllegalStateException("Transaction already committed");
+        }
+        if (slotType == null) {
+            throw new IllegalArgumentException("Slot type cannot be null");
+        }
+        return edits.computeIfAbsent(slotType.toLowerCase(), SlotEdit::new);
+    }
+
+    /**
+     * Validates and applies every recorded change. If the player's accessories
+     * are not loaded, any slot type is unknown or any index is out of range,
+     * nothing is applied.
+     *
+     * @return true if the changes were applied
+     */
+    public boolean commit() {
+        if (committed) {
+            throw new IllegalStateException("Transaction already committed");
+        }
+        committed = true;
+
+        // Editing an unloaded player would create an entry nothing saves or unloads
+        if (!plugin.getSlotManager().hasPlayerData(playerId)) {
+            plugin.getLogger().warning("Attempted to edit accessories of a player that is not loaded: " + playerId);
+            return false;
+        }
+
+        // Validate everything before touching any data
+        for (SlotEdit edit : edits.values()) {
+            SlotConfiguration config = plugin.getConfigManager().getSlotConfiguration(edit.slotType);
+            if (config == null) {
+                plugin.getLogger().warning("Attempted to edit accessories for invalid slot type: " + edit.slotType);
+                return false;
+            }
+            if (!edit.items.isEmpty() && edit.items.lastKey() >= config.getAmount()) {
+                plugin.getLogger().warning("Attempted to set item at index " + edit.items.lastKey() +
+                        " for slot type '" + edit.slotType + "' which only has " +
+                        config.getAmount() + " slots");
+                return false;
+            }
+        }
+
+        Map<String, List<ItemStack>> updated = new LinkedHashMap<>();
+        List<AccessoryLoadoutChangeEvent.Change> changes = new ArrayList<>();
+
+        for (SlotEdit edit : edits.values()) {
+            List<ItemStack> items = plugin.getSlotManager().getAccessories(playerId, edit.slotType);
+            List<ItemStack> previous = new ArrayList<>(items);
+
+            if (edit.clearAll) {
+                for (int i = 0; i < items.size(); i++) {
+                    items.set(i, null);
+                }
+            }
+            for (Map.Entry<Integer, ItemStack> entry : edit.items.entrySet()) {
+                while (items.size() <= entry.getKey()) {
+                    items.add(null);
+                }
+                items.set(entry.getKey(), entry.getValue());
+            }
+
+            for (int i = 0; i < items.size(); i++) {
+                ItemStack oldItem = i < previous.size() ? previous.get(i) : null;
+                if (oldItem != null && oldItem.getType() == Material.AIR) {
+                    oldItem = null;
+                }
+                ItemStack newItem = items.get(i);
+                if (oldItem == null ? newItem != null : !oldItem.equals(newItem)) {
+                    changes.add(new AccessoryLoadoutChangeEvent.Change(edit.slotType, i, oldItem, newItem));
+                }
+            }
+            updated.put(edit.slotType, items);
+        }
+
+        if (changes.isEmpty()) {
+            return true;
+        }
+
+        plugin.getSlotManager().putAccessories(playerId, updated);
+
+        Player player = plugin.getServer().getPlayer(playerId);
+        if (player != null) {
+            AccessoryLoadoutChangeEvent.dispatch(player, changes);
+        }
+        return true;
+    }
+}
@@ -137,6 +137,23 @@ public interface CuriosPaperAPI {
      */
     void clearEquippedItems(UUID playerId, String slotType);
 
+    // ========== BULK EDITING ==========
+
+    /**
+     * Starts a batch of accessory changes that is validated and applied as a
+     * whole by {@link AccessoryTransaction#commit()}, with one
+     * AccessoryLoadoutChangeEvent for the batch
+     */
+    AccessoryTransaction edit(Player player);
+
+    /**
+     * Starts a batch of accessory changes for a player UUID. The player's
+     * accessories must be loaded (normally while they are online), otherwise
+     * the commit applies nothing and returns false. The change event is only
+     * fired if the player is online when the batch is committed
+     */
+    AccessoryTransaction edit(UUID playerId);
+
     // ========== CONFIGURATION QUERIES ==========
 
     /**
@@ -179,6 +196,62 @@ public interface CuriosPaperAPI {
      */
     int countEquippedItems(UUID playerId, String slotType);
 
+    /**
+     * Checks if an online player has a custom item equipped in any slot type.
+     * Answered from a live index, without scanning the player's slots
+     */
+    boolean hasEquipped(Player player, String itemId);
+
+    /**
+     * Checks if a player has a custom item equipped in any slot type
+     */
+    boolean hasEquipped(UUID playerId, String itemId);
+
+    /**
+     * Counts how many slots of an online player hold a custom item
+     */
+    int countEquipped(Player player, String itemId);
+
+    /**
+     * Counts how many slots of a player hold a custom item
+     */
+    int countEquipped(UUID playerId, String itemId);
+
+    /**
+     * Gets every player whose accessories are loaded (normally the online
+     * players) with a custom item equipped.
+     * The returned set is a snapshot; it is safe to iterate while equipping
+     * or unequipping, and does not follow later changes
+     */
+    java.util.Set<UUID> playersWith(String itemId);
+
+    // ========== STATS ==========
+
+    /**
+     * Gets the vector index of an accessory stat: a custom stat declared on
+     * ItemData, or a vanilla attribute by enum name (e.g. "generic_armor").
+     * Resolve it once and read values with {@link #getStat(Player, int)}
+     * 
+     * @return the index, or -1 if no equipped item has provided the stat yet
+     */
+    int getStatIndex(String stat);
+
+    /**
+     * Gets a player's summed accessory stat at a vector index (0 if unknown).
+     * Kept up to date as accessories change, so this is a plain array read
+     */
+    double getStat(Player player, int statIndex);
+
+    /**
+     * Gets a player's summed accessory stat by name (0 if unknown)
+     */
+    double getStat(Player player, String stat);
+
+    /**
+     * Gets a copy of a player's stat vector, indexed like {@link #getStatIndex(String)}
+     */
+    double[] getStats(Player player);
+
     // ========== SLOT REGISTRATION ==========
 
     /**
@@ -270,6 +270,16 @@ public class CuriosPaperAPIImpl implements CuriosPaperAPI {
         setEquippedItems(playerId, slotType, emptyList);
     }
 
+    @Override
+    public AccessoryTransaction edit(Player player) {
+        return edit(player.getUniqueId());
+    }
+
+    @Override
+    public AccessoryTransaction edit(UUID playerId) {
+        return new AccessoryTransaction(plugin, playerId);
+    }
+
     @Override
     public boolean isValidSlotType(String slotType) {
         return plugin.getConfigManager().hasSlotType(slotType);
@@ -310,6 +320,52 @@ public class CuriosPaperAPIImpl implements CuriosPaperAPI {
                 .count();
     }
 
+    @Override
+    public boolean hasEquipped(Player player, String itemId) {
+        return hasEquipped(player.getUniqueId(), itemId);
+    }
+
+    @Override
+    public boolean hasEquipped(UUID playerId, String itemId) {
+        return plugin.getSlotManager().getEquippedItemIndex().hasEquipped(playerId, itemId);
+    }
+
+    @Override
+    public int countEquipped(Player player, String itemId) {
+        return countEquipped(player.getUniqueId(), itemId);
+    }
+
+    @Override
+    public int countEquipped(UUID playerId, String itemId) {
+        return plugin.getSlotManager().getEquippedItemIndex().countEquipped(playerId, itemId);
+    }
+
+    @Override
+    public java.util.Set<UUID> playersWith(String itemId) {
+        // Copied: the index's view changes under callers that equip items while iterating
+        return new java.util.HashSet<>(plugin.getSlotManager().getEquippedItemIndex().getPlayersWith(itemId));
+    }
+
+    @Override
+    public int getStatIndex(String stat) {
+        return plugin.getSlotManager().getStatManager().getStatIndex(stat);
+    }
+
+    @Override
+    public double getStat(Player player, int statIndex) {
+        return plugin.getSlotManager().getStatManager().getStat(player.getUniqueId(), statIndex);
+    }
+
+    @Override
+    public double getStat(Player player, String stat) {
+        return plugin.getSlotManager().getStatManager().getStat(player.getUniqueId(), stat);
+    }
+
+    @Override
+    public double[] getStats(Player player) {
+        return plugin.getSlotManager().getStatManager().getStats(player.getUniqueId());
+    }
+
     // ========== SLOT REGISTRATION ==========
 
     @Override
@@ -2,6 +2,7 @@ package org.bg52.curiospaper.command;
 
 import org.bg52.curiospaper.CuriosPaper;
 import org.bg52.curiospaper.api.CuriosPaperAPI;
+import org.bg52.curiospaper.resourcepack.PackLayer;
 import org.bg52.curiospaper.resourcepack.ResourcePackManager;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
@@ -103,7 +104,7 @@ public class CuriosCommand implements CommandExecutor, TabCompleter {
                 break;
 
             case "rebuild":
-                cmdRpRebuild(sender);
+                cmdRpRebuild(sender, args.length > 1 && args[1].equalsIgnoreCase("full"));
                 break;
 
             case "conflicts":
@@ -121,13 +122,14 @@ public class CuriosCommand implements CommandExecutor, TabCompleter {
         int port = plugin.getConfig().getInt("resource-pack.port", 8080);
 
         File pack = rpManager.getPackFile();
-        long sizeBytes = pack.exists() ? pack.length() : 0L;
+        boolean generated = pack != null && pack.exists();
+        long sizeBytes = generated ? pack.length() : 0L;
         String humanSize = humanReadableSize(sizeBytes);
 
         String hash = rpManager.getPackHash();
         int sourceCount = rpManager.getRegisteredSources().size();
         Set<String> namespaces = rpManager.getRegisteredNamespaces();
-        int conflictCount = rpManager.getConflictLog().size();
+        int conflictCount = rpManager.getConflictReport().getTotal();
 
         sender.sendMessage(ChatColor.GOLD + "==== CuriosPaper Resource Pack ====");
         sender.sendMessage(
@@ -136,10 +138,23 @@ public class CuriosCommand implements CommandExecutor, TabCompleter {
                 ChatColor.YELLOW + "Host: " + ChatColor.AQUA + host + ChatColor.GRAY + ":" + ChatColor.AQUA + port);
 
         sender.sendMessage(ChatColor.YELLOW + "Pack file: " +
-                (pack.exists() ? ChatColor.GREEN + pack.getName() + ChatColor.GRAY + " (" + humanSize + ")"
+                (generated ? ChatColor.GREEN + pack.getName() + ChatColor.GRAY + " (" + humanSize + ")"
                         : ChatColor.RED + "NOT GENERATED"));
 
         sender.sendMessage(ChatColor.YELLOW + "Hash: " + ChatColor.AQUA + (hash != null ? hash : "none"));
+        sender.sendMessage(ChatColor.YELLOW + "Deduplicated: " + ChatColor.AQUA
+                + humanReadableSize(rpManager.getDedupSavedBytes()) + ChatColor.GRAY + " of duplicate textures removed");
+
+        List<PackLayer> layers = rpManager.getLayers();
+        if (!layers.isEmpty()) {
+            sender.sendMessage(ChatColor.YELLOW + "Layers: " + ChatColor.AQUA + layers.size());
+            for (PackLayer layer : layers) {
+                sender.sendMessage(ChatColor.GRAY + " - " + ChatColor.AQUA + layer.getId() + ChatColor.GRAY + " ("
+                        + layer.getFileCount() + " files, " + humanReadableSize(layer.getFile().length()) + ", "
+                        + humanReadableSize(layer.getSavedBytes()) + " deduplicated, "
+                        + layer.getHash().substring(0, 8) + ")");
+            }
+        }
         sender.sendMessage(ChatColor.YELLOW + "Registered sources: " + ChatColor.AQUA + sourceCount);
 
         sender.sendMessage(ChatColor.YELLOW + "Namespaces: " +
@@ -147,43 +162,59 @@ public class CuriosCommand implements CommandExecutor, TabCompleter {
 
         sender.sendMessage(ChatColor.YELLOW + "Last build conflicts: " +
                 (conflictCount > 0 ? ChatColor.RED + String.valueOf(conflictCount) : ChatColor.GREEN + "0"));
+
+        if (rpManager.isBuilding()) {
+            sender.sendMessage(ChatColor.YELLOW + "Build: " + ChatColor.GOLD + "running " + ChatColor.GRAY + "("
+                    + rpManager.getBuildPhase() + " " + rpManager.getBuildFilesDone() + "/" + rpManager.getBuildFilesTotal() + " files, "
+                    + rpManager.getBuildElapsed() + "ms)");
+        } else {
+            long last = rpManager.getLastBuildDuration();
+            sender.sendMessage(ChatColor.YELLOW + "Build: " + ChatColor.GREEN + "idle" + ChatColor.GRAY
+                    + (last >= 0 ? " (last build took " + last + "ms)" : " (not built yet)"));
+        }
     }
 
-    private void cmdRpRebuild(CommandSender sender) {
-        sender.sendMessage(ChatColor.YELLOW + "Rebuilding CuriosPaper resource pack...");
-        rpManager.generatePack();
-        sender.sendMessage(ChatColor.GREEN + "Resource pack rebuild complete.");
+    private void cmdRpRebuild(CommandSender sender, boolean full) {
+        sender.sendMessage(ChatColor.YELLOW + "Rebuilding CuriosPaper resource pack in the background"
+                + (full ? " (full)..." : "..."));
+        if (full) {
+            // Reprocesses every file instead of trusting the build cache
+            rpManager.invalidateBuildCache();
+        }
+        rpManager.generatePack().thenAccept(hash -> Bukkit.getScheduler().runTask(plugin, () -> {
+            if (hash == null) {
+                sender.sendMessage(ChatColor.RED + "Resource pack rebuild failed; see console for details.");
+                return;
+            }
+            sender.sendMessage(ChatColor.GREEN + "Resource pack rebuild complete ("
+                    + rpManager.getLastBuildDuration() + "ms).");
+            resendPack(sender);
+        }));
+    }
 
+    private void resendPack(CommandSender sender) {
         if (!plugin.getConfig().getBoolean("resource-pack.enabled", false)) {
             sender.sendMessage(ChatColor.GRAY + "Resource pack HTTP server is disabled; not sending pack to players.");
             return;
         }
 
-        String url = rpManager.getPackUrl();
-
-        int count = 0;
-        for (org.bukkit.entity.Player p : org.bukkit.Bukkit.getOnlinePlayers()) {
-            try {
-                // Use single-arg setResourcePack(url) for maximum version compatibility (1.14+)
-                p.setResourcePack(url);
-                count++;
-            } catch (Exception e) {
-                plugin.getLogger().warning("[CuriosPaper] Failed to send resource pack to " + p.getName()
-                        + ": " + e.getMessage());
-            }
-        }
+        // Staggered like joins, so a rebuild doesn't start every download at once
+        java.util.Collection<? extends org.bukkit.entity.Player> online = org.bukkit.Bukkit.getOnlinePlayers();
+        rpManager.getDelivery().enqueueAll(online);
 
-        sender.sendMessage(ChatColor.YELLOW + "Re-sent resource pack to "
-                + ChatColor.AQUA + count + ChatColor.YELLOW + " online players.");
+        sender.sendMessage(ChatColor.YELLOW + "Queued resource pack for "
+                + ChatColor.AQUA + online.size() + ChatColor.YELLOW + " online players.");
     }
 
     private void cmdRpConflicts(CommandSender sender) {
+        ResourcePackManager.ConflictReport report = rpManager.getConflictReport();
         List<String> fileConflicts = rpManager.getConflictLog();
         List<String> nsConflicts = rpManager.getNamespaceConflictLog();
+        int nsTotal = rpManager.getNamespaceConflictTotal();
 
         sender.sendMessage(ChatColor.GOLD + "==== CuriosPaper RP Conflicts ====");
 
-        if (fileConflicts.isEmpty() && nsConflicts.isEmpty()) {
+        if (report.getTotal() == 0 && nsTotal == 0) {
             sender.sendMessage(ChatColor.GREEN + "No conflicts recorded.");
             return;
         }
@@ -193,13 +224,26 @@ public class CuriosCommand implements CommandExecutor, TabCompleter {
             for (String line : nsConflicts) {
                 sender.sendMessage(ChatColor.RED + "- " + line);
             }
+            if (nsTotal > nsConflicts.size()) {
+                sender.sendMessage(ChatColor.GRAY + "  ... and " + (nsTotal - nsConflicts.size()) + " more");
+            }
         }
 
-        if (!fileConflicts.isEmpty()) {
+        if (report.getTotal() > 0) {
+            sender.sendMessage(ChatColor.YELLOW + "File conflicts by namespace:");
+            for (Map.Entry<String, Integer> entry : report.getConflictsByNamespace().entrySet()) {
+                Map<String, Integer> owners = report.getFilesByNamespace().get(entry.getKey());
+                sender.sendMessage(ChatColor.RED + "- " + entry.getKey() + ": " + entry.getValue() + " conflicts"
+                        + ChatColor.GRAY + (owners != null ? " (files per plugin: " + owners + ")" : ""));
+            }
+
             sender.sendMessage(ChatColor.YELLOW + "File conflicts:");
             for (String line : fileConflicts) {
                 sender.sendMessage(ChatColor.RED + "- " + line);
             }
+            if (report.getTotal() > fileConflicts.size()) {
+                sender.sendMessage(ChatColor.GRAY + "  ... and " + (report.getTotal() - fileConflicts.size()) + " more");
+            }
         }
     }
 
@@ -394,6 +438,10 @@ public class CuriosCommand implements CommandExecutor, TabCompleter {
             }
         }
 
+        if (args.length == 3 && args[0].equalsIgnoreCase("rp") && args[1].equalsIgnoreCase("rebuild")) {
+            return partial(args[2], Collections.singletonList("full"));
+        }
+
         if (args.length == 3 && args[0].equalsIgnoreCase("debug") && args[1].equalsIgnoreCase("player")) {
             String prefix = args[2].toLowerCase(Locale.ROOT);
             return Bukkit.getOnlinePlayers().stream()
@@ -417,7 +465,7 @@ public class CuriosCommand implements CommandExecutor, TabCompleter {
     private void sendUsage(CommandSender sender, String label) {
         sender.sendMessage(ChatColor.GOLD + "CuriosPaper Commands:");
         sender.sendMessage(ChatColor.YELLOW + "/" + label + " rp info");
-        sender.sendMessage(ChatColor.YELLOW + "/" + label + " rp rebuild");
+        sender.sendMessage(ChatColor.YELLOW + "/" + label + " rp rebuild [full]");
         sender.sendMessage(ChatColor.YELLOW + "/" + label + " rp conflicts");
         sender.sendMessage(ChatColor.YELLOW + "/" + label + " debug player <name>");
         sender.sendMessage(ChatColor.YELLOW + "/" + label + " debug item");
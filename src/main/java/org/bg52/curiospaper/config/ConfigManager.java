@@ -12,9 +12,12 @@ import java.util.Map;
 public class ConfigManager {
     private final CuriosPaper plugin;
     private final Map<String, SlotConfiguration> slotConfigurations;
+    // Bumped on every change to the slot configurations, so caches built from them can tell they're stale
+    private int revision = 0;
 
     private static final int MIN_SLOT_AMOUNT = 1;
-    private static final int MAX_SLOT_AMOUNT = 54;
+    // Larger amounts are paged in the GUI; this only bounds what we consider sane
+    private static final int MAX_SLOT_AMOUNT = 1008;
     private static final Material DEFAULT_ICON = Material.BARRIER;
 
     public ConfigManager(CuriosPaper plugin) {
@@ -50,6 +53,7 @@ public class ConfigManager {
             }
         }
 
+        revision++;
         plugin.getLogger().info("Slot configuration loading complete:");
         plugin.getLogger().info("  Successfully loaded: " + loadedCount);
         if (errorCount > 0) {
@@ -151,9 +155,17 @@ public class ConfigManager {
         return slotConfigurations.containsKey(key.toLowerCase());
     }
 
+    /**
+     * @return a counter that changes whenever slot configurations are loaded, added or removed
+     */
+    public int getRevision() {
+        return revision;
+    }
+
     public void reload() {
         plugin.reloadConfig();
         slotConfigurations.clear();
+        revision++;
         plugin.getLogger().info("Reloading slot configurations...");
         loadConfigurations();
     }
@@ -173,6 +185,7 @@ public class ConfigManager {
         }
 
         slotConfigurations.put(normalizedKey, config);
+        revision++;
         plugin.getLogger().info("✓ Registered dynamic slot: '" + key + "' (" + config.getAmount() + " slots)");
         return true;
     }
@@ -189,6 +202,7 @@ public class ConfigManager {
         SlotConfiguration removed = slotConfigurations.remove(normalizedKey);
 
         if (removed != null) {
+            revision++;
             plugin.getLogger().info("✓ Unregistered slot: '" + key + "'");
             return true;
         }
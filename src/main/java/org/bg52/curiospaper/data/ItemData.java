@@ -25,6 +25,9 @@ public class ItemData {
     private List<MobDropData> mobDrops;
     private List<VillagerTradeData> villagerTrades;
     private List<AbilityData> abilities;
+    private String setId;
+    private List<SetBonusData> setBonuses;
+    private Map<String, Double> stats;
 
     public ItemData(String itemId) {
         this.itemId = itemId;
@@ -34,6 +37,8 @@ public class ItemData {
         this.mobDrops = new ArrayList<>();
         this.villagerTrades = new ArrayList<>();
         this.abilities = new ArrayList<>();
+        this.setBonuses = new ArrayList<>();
+        this.stats = new HashMap<>();
     }
 
     // ========== GETTERS ==========
@@ -94,6 +99,29 @@ public class ItemData {
         return new ArrayList<>(abilities);
     }
 
+    /**
+     * @return the equipment set this item is a piece of, or null if none
+     */
+    public String getSetId() {
+        return setId;
+    }
+
+    /**
+     * Gets the bonus tiers of this item's set. Every piece of a set is expected
+     * to list the same tiers.
+     */
+    public List<SetBonusData> getSetBonuses() {
+        return new ArrayList<>(setBonuses);
+    }
+
+    /**
+     * Gets the custom numeric stats this item adds while equipped, by lowercase
+     * stat name
+     */
+    public Map<String, Double> getStats() {
+        return new HashMap<>(stats);
+    }
+
     // ========== SETTERS ==========
 
     public void setDisplayName(String displayName) {
@@ -180,6 +208,29 @@ public class ItemData {
         this.abilities.add(ability);
     }
 
+    public void setSetId(String setId) {
+        this.setId = setId;
+    }
+
+    public void setSetBonuses(List<SetBonusData> setBonuses) {
+        this.setBonuses = new ArrayList<>(setBonuses);
+    }
+
+    public void addSetBonus(SetBonusData setBonus) {
+        this.setBonuses.add(setBonus);
+    }
+
+    public void setStats(Map<String, Double> stats) {
+        this.stats = new HashMap<>();
+        for (Map.Entry<String, Double> entry : stats.entrySet()) {
+            setStat(entry.getKey(), entry.getValue());
+        }
+    }
+
+    public void setStat(String stat, double value) {
+        this.stats.put(stat.toLowerCase(), value);
+    }
+
     // ========== SERIALIZATION ==========
 
     /**
@@ -264,6 +315,25 @@ public class ItemData {
                 abilities.get(i).saveToConfig(entrySection);
             }
         }
+
+        if (setId != null) {
+            config.set("set-id", setId);
+        }
+
+        if (!setBonuses.isEmpty()) {
+            ConfigurationSection bonusesSection = config.createSection("set-bonuses");
+            for (int i = 0; i < setBonuses.size(); i++) {
+                ConfigurationSection entrySection = bonusesSection.createSection("entry-" + i);
+                setBonuses.get(i).saveToConfig(entrySection);
+            }
+        }
+
+        if (!stats.isEmpty()) {
+            ConfigurationSection statsSection = config.createSection("stats");
+            for (Map.Entry<String, Double> entry : stats.entrySet()) {
+                statsSection.set(entry.getKey(), entry.getValue());
+            }
+        }
     }
 
     /**
@@ -357,6 +427,31 @@ public class ItemData {
             }
         }
 
+        // Load set membership and bonuses
+        data.setSetId(config.getString("set-id"));
+        ConfigurationSection bonusesSection = config.getConfigurationSection("set-bonuses");
+        if (bonusesSection != null) {
+            for (String key : bonusesSection.getKeys(false)) {
+                ConfigurationSection entrySection = bonusesSection.getConfigurationSection(key);
+                if (entrySection != null) {
+                    SetBonusData setBonus = SetBonusData.loadFromConfig(entrySection);
+                    if (setBonus.isValid()) {
+                        data.addSetBonus(setBonus);
+                    }
+                }
+            }
+        }
+
+        // Load custom stats
+        ConfigurationSection statsSection = config.getConfigurationSection("stats");
+        if (statsSection != null) {
+            for (String key : statsSection.getKeys(false)) {
+                if (statsSection.isDouble(key) || statsSection.isInt(key)) {
+                    data.setStat(key, statsSection.getDouble(key));
+                }
+            }
+        }
+
         return data;
     }
 
@@ -380,6 +475,7 @@ public class ItemData {
                 ", mobDrops=" + mobDrops.size() +
                 ", villagerTrades=" + villagerTrades.size() +
                 ", abilities=" + abilities.size() +
+                ", setId='" + setId + '\'' +
                 '}';
     }
 }
@@ -0,0 +1,88 @@
+package org.bg52.curiospaper.data;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One tier of an equipment set bonus: the abilities granted while at least
+ * the given number of pieces of the item's set are equipped.
+ */
+public class SetBonusData {
+    private int pieces; // Number of set pieces required
+    private List<AbilityData> abilities;
+
+    public SetBonusData(int pieces, List<AbilityData> abilities) {
+        this.pieces = Math.max(1, pieces);
+        this.abilities = new ArrayList<>(abilities);
+    }
+
+    // Getters
+    public int getPieces() {
+        return pieces;
+    }
+
+    public List<AbilityData> getAbilities() {
+        return new ArrayList<>(abilities);
+    }
+
+    // Setters
+    public void setPieces(int pieces) {
+        this.pieces = Math.max(1, pieces);
+    }
+
+    public void setAbilities(List<AbilityData> abilities) {
+        this.abilities = new ArrayList<>(abilities);
+    }
+
+    public void addAbility(AbilityData ability) {
+        this.abilities.add(ability);
+    }
+
+    /**
+     * Saves this set bonus to a configuration section
+     */
+    public void saveToConfig(ConfigurationSection config) {
+        config.set("pieces", pieces);
+        ConfigurationSection abilitiesSection = config.createSection("abilities");
+        for (int i = 0; i < abilities.size(); i++) {
+            abilities.get(i).saveToConfig(abilitiesSection.createSection("entry-" + i));
+        }
+    }
+
+    /**
+     * Loads a set bonus from a configuration section
+     */
+    public static SetBonusData loadFromConfig(ConfigurationSection config) {
+        List<AbilityData> abilities = new ArrayList<>();
+        ConfigurationSection abilitiesSection = config.getConfigurationSection("abilities");
+        if (abilitiesSection != null) {
+            for (String key : abilitiesSection.getKeys(false)) {
+                ConfigurationSection entrySection = abilitiesSection.getConfigurationSection(key);
+                if (entrySection != null) {
+                    AbilityData ability = AbilityData.loadFromConfig(entrySection);
+                    if (ability != null && ability.isValid()) {
+                        abilities.add(ability);
+                    }
+                }
+            }
+        }
+        return new SetBonusData(config.getInt("pieces", 1), abilities);
+    }
+
+    /**
+     * Validates the set bonus configuration
+     */
+    public boolean isValid() {
+        return pieces > 0 && !abilities.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "SetBonusData{" +
+                "pieces=" + pieces +
+                ", abilities=" + abilities.size() +
+                '}';
+    }
+}
@@ -9,6 +9,8 @@ import org.bukkit.inventory.ItemStack;
 /**
  * Event fired when a player equips, unequips, or swaps an accessory item.
  * This event is called after the inventory change has been processed.
+ * Cancelling it does not undo the change; it is only marked as cancelled in
+ * the {@link AccessoryLoadoutChangeEvent} fired for the batch.
  */
 public class AccessoryEquipEvent extends Event implements Cancellable {
     private static final HandlerList HANDLERS = new HandlerList();
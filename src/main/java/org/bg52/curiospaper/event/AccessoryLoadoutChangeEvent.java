@@ -0,0 +1,134 @@
+package org.bg52.curiospaper.event;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Event fired once for every batch of accessory changes applied together,
+ * e.g. all slots changed by one GUI interaction. Listeners that recompute
+ * state from the player's loadout should use this instead of reacting to
+ * each {@link AccessoryEquipEvent} separately.
+ * This event is called after the changes have been applied and always lists
+ * every applied change, including those whose AccessoryEquipEvent was
+ * cancelled (see {@link Change#isCancelled()}), since cancelling does not
+ * undo them.
+ */
+public class AccessoryLoadoutChangeEvent extends Event {
+    private static final HandlerList HANDLERS = new HandlerList();
+
+    private final Player player;
+    private final List<Change> changes;
+
+    /**
+     * A single slot whose item changed.
+     */
+    public static class Change {
+        private final String slotType;
+        private final int slotIndex;
+        private final ItemStack previousItem;
+        private final ItemStack newItem;
+        private boolean cancelled = false;
+
+        public Change(String slotType, int slotIndex, ItemStack previousItem, ItemStack newItem) {
+            this.slotType = slotType;
+            this.slotIndex = slotIndex;
+            this.previousItem = previousItem;
+            this.newItem = newItem;
+        }
+
+        public String getSlotType() {
+            return slotType;
+        }
+
+        public int getSlotIndex() {
+            return slotIndex;
+        }
+
+        /**
+         * Gets the item that was previously in the slot (null if empty)
+         */
+        public ItemStack getPreviousItem() {
+            return previousItem;
+        }
+
+        /**
+         * Gets the item that is now in the slot (null if empty)
+         */
+        public ItemStack getNewItem() {
+            return newItem;
+        }
+
+        public AccessoryEquipEvent.Action getAction() {
+            if (newItem == null) {
+                return AccessoryEquipEvent.Action.UNEQUIP;
+            }
+            return previousItem == null ? AccessoryEquipEvent.Action.EQUIP : AccessoryEquipEvent.Action.SWAP;
+        }
+
+        /**
+         * Whether a listener cancelled the AccessoryEquipEvent fired for this
+         * change. The change is applied either way; state that mirrors the
+         * loadout must still follow it.
+         */
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    public AccessoryLoadoutChangeEvent(Player player, List<Change> changes) {
+        this.player = player;
+        this.changes = Collections.unmodifiableList(new ArrayList<>(changes));
+    }
+
+    /**
+     * Fires the events for a batch of applied changes: one
+     * {@link AccessoryEquipEvent} per change, only built if anything listens
+     * to it, then this event once with all of them, cancelled ones marked.
+     */
+    public static void dispatch(Player player, List<Change> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        if (AccessoryEquipEvent.getHandlerList().getRegisteredListeners().length > 0) {
+            for (Change change : changes) {
+                AccessoryEquipEvent event = new AccessoryEquipEvent(player, change.getSlotType(),
+                        change.getSlotIndex(), change.getPreviousItem(), change.getNewItem(), change.getAction());
+                Bukkit.getPluginManager().callEvent(event);
+                change.cancelled = event.isCancelled();
+            }
+        }
+
+        Bukkit.getPluginManager().callEvent(new AccessoryLoadoutChangeEvent(player, changes));
+    }
+
+    /**
+     * Gets the player whose accessories changed
+     */
+    public Player getPlayer() {
+        return player;
+    }
+
+    /**
+     * Gets every slot that changed, in the order the changes were applied
+     */
+    public List<Change> getChanges() {
+        return changes;
+    }
+
+    @Override
+    public HandlerList getHandlers() {
+        return HANDLERS;
+    }
+
+    public static HandlerList getHandlerList() {
+        return HANDLERS;
+    }
+}
@@ -2,7 +2,7 @@ package org.bg52.curiospaper.handler;
 
 import org.bg52.curiospaper.CuriosPaper;
 import org.bg52.curiospaper.config.SlotConfiguration;
-import org.bg52.curiospaper.event.AccessoryEquipEvent;
+import org.bg52.curiospaper.event.AccessoryLoadoutChangeEvent;
 import org.bukkit.ChatColor;
 import org.bukkit.Material;
 import org.bukkit.NamespacedKey;
@@ -149,29 +149,37 @@ public class ElytraBackSlotHandler implements Listener {
         plugin.getServer().getScheduler().runTask(plugin, () -> retagAllPlayerElytras(player));
     }
 
-    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
-    public void onAccessoryEquip(AccessoryEquipEvent event) {
-        // Only process back slot events
-        if (!"back".equalsIgnoreCase(event.getSlotType())) {
-            return;
-        }
-
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onLoadoutChange(AccessoryLoadoutChangeEvent event) {
         // Check if feature is enabled
         if (!plugin.getConfig().getBoolean("features.allow-elytra-on-back-slot", false)) {
             return;
         }
 
-        Player player = event.getPlayer();
-        ItemStack newItem = event.getNewItem();
-        ItemStack previousItem = event.getPreviousItem();
+        // Only back slot changes matter; the whole batch is settled with one update
+        boolean equipped = false;
+        boolean unequipped = false;
+        for (AccessoryLoadoutChangeEvent.Change change : event.getChanges()) {
+            if (!"back".equalsIgnoreCase(change.getSlotType())) {
+                continue;
+            }
+
+            ItemStack newItem = change.getNewItem();
+            ItemStack previousItem = change.getPreviousItem();
+            if (newItem != null && newItem.getType() == Material.ELYTRA) {
+                equipped = true;
+            } else if (previousItem != null && previousItem.getType() == Material.ELYTRA) {
+                unequipped = true;
+            }
+        }
 
         // Handle elytra being equipped
-        if (newItem != null && newItem.getType() == Material.ELYTRA) {
-            handleElytraEquipped(player);
+        if (equipped) {
+            handleElytraEquipped(event.getPlayer());
         }
         // Handle elytra being unequipped
-        else if (previousItem != null && previousItem.getType() == Material.ELYTRA) {
-            handleElytraUnequipped(player);
+        else if (unequipped) {
+            handleElytraUnequipped(event.getPlayer());
         }
     }
 
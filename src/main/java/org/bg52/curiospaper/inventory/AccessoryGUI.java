@@ -21,11 +21,51 @@ public class AccessoryGUI {
     private static final Material BORDER_MATERIAL = Material.BLACK_STAINED_GLASS_PANE;
     private static final String FILLER_NAME = "§r";
 
-    // Store slot positions for each slot type
-    private final Map<String, int[]> slotPositionCache = new HashMap<>();
+    // Entries per page once a GUI needs more than one: the 7x4 inner box of a double chest
+    public static final int PAGE_SIZE = 28;
+    // Navigation in the bottom border row of paged GUIs
+    static final int PREVIOUS_PAGE_SLOT = 48;
+    static final int PAGE_INFO_SLOT = 49;
+    static final int NEXT_PAGE_SLOT = 50;
+
+    // Prebuilt contents of every GUI page, rebuilt when the slot configuration changes
+    private Template[] mainTemplates;
+    private final Map<String, Template[]> slotTemplates = new HashMap<>();
+    private int templateRevision = -1;
 
     public AccessoryGUI(CuriosPaper plugin) {
         this.plugin = plugin;
+        refreshTemplates();
+    }
+
+    /**
+     * Immutable layout of one GUI page: title, filled contents and, for slot
+     * GUIs, the inventory slot of each accessory index on the page. Opening a
+     * GUI copies the contents; Bukkit copies every stack on insert, so they are
+     * never shared.
+     */
+    private static final class Template {
+        final String slotType;
+        final String title;
+        final ItemStack[] contents;
+        final int page;
+        final int pageCount;
+        // Accessory index shown in slotPositions[0]
+        final int firstIndex;
+        final int[] slotPositions;
+        final long slotMask;
+
+        Template(String slotType, String title, ItemStack[] contents, int page, int pageCount, int firstIndex,
+                int[] slotPositions) {
+            this.slotType = slotType;
+            this.title = title;
+            this.contents = contents;
+            this.page = page;
+            this.pageCount = pageCount;
+            this.firstIndex = firstIndex;
+            this.slotPositions = slotPositions;
+            this.slotMask = AccessorySession.maskOf(slotPositions);
+        }
     }
 
     /**
@@ -33,75 +73,187 @@ public class AccessoryGUI {
      * Always uses double chest (54 slots) with beautiful layout
      */
     public void openMainGUI(Player player) {
+        openMainGUI(player, 0);
+    }
+
+    public void openMainGUI(Player player, int page) {
+        refreshTemplates();
+        Template template = mainTemplates[Math.max(0, Math.min(page, mainTemplates.length - 1))];
+
+        AccessorySession session = newSession(template, Collections.<ItemStack>emptyList());
+        Inventory mainGUI = Bukkit.createInventory(session, template.contents.length, template.title);
+        session.setInventory(mainGUI);
+        mainGUI.setContents(template.contents);
+
+        player.openInventory(mainGUI);
+    }
+
+    /**
+     * Opens the Tier 2 GUI for a specific slot type
+     * Dynamically sized and beautifully arranged based on slot count
+     */
+    public void openSlotItemsGUI(Player player, String slotType) {
+        openSlotItemsGUI(player, slotType, 0);
+    }
+
+    /**
+     * Opens one page of a slot type's GUI. Only that page's items are read
+     * from the SlotManager, so opening costs the same however many slots the
+     * type has.
+     */
+    public void openSlotItemsGUI(Player player, String slotType, int page) {
+        refreshTemplates();
+        Template[] pages = slotType != null ? slotTemplates.get(slotType.toLowerCase()) : null;
+        if (pages == null) {
+            player.sendMessage("§cInvalid slot type!");
+            return;
+        }
+        Template template = pages[Math.max(0, Math.min(page, pages.length - 1))];
+
+        int[] slotPositions = template.slotPositions;
+
+        // Current items of this page; the session diffs clicks against them
+        List<ItemStack> currentItems = plugin.getSlotManager().getAccessories(player.getUniqueId(),
+                template.slotType, template.firstIndex, slotPositions.length);
+
+        AccessorySession session = newSession(template, currentItems);
+        Inventory slotsGUI = Bukkit.createInventory(session, template.contents.length, template.title);
+        session.setInventory(slotsGUI);
+        slotsGUI.setContents(template.contents);
+
+        // Overlay the player's items
+        for (int i = 0; i < currentItems.size() && i < slotPositions.length; i++) {
+            ItemStack item = currentItems.get(i);
+            if (item != null && item.getType() != org.bukkit.Material.AIR) {
+                slotsGUI.setItem(slotPositions[i], item);
+            }
+        }
+
+        player.openInventory(slotsGUI);
+    }
+
+    private AccessorySession newSession(Template template, List<ItemStack> currentItems) {
+        return new AccessorySession(template.slotType, template.page, template.pageCount, template.firstIndex,
+                template.slotPositions, template.slotMask, currentItems);
+    }
+
+    /**
+     * Rebuilds every template if the slot configuration changed since they were built.
+     */
+    private void refreshTemplates() {
+        int revision = plugin.getConfigManager().getRevision();
+        if (revision == templateRevision && mainTemplates != null) {
+            return;
+        }
+
         Map<String, SlotConfiguration> configs = plugin.getConfigManager().getSlotConfigurations();
+        slotTemplates.clear();
+        for (Map.Entry<String, SlotConfiguration> entry : configs.entrySet()) {
+            slotTemplates.put(entry.getKey(), buildSlotTemplates(entry.getValue()));
+        }
+        mainTemplates = buildMainTemplates(new ArrayList<>(configs.values()));
+        templateRevision = revision;
+    }
 
-        // Double chest size for beautiful layout
-        int size = getMainGUISize(configs.size());
-        Inventory mainGUI = Bukkit.createInventory(null, size, MAIN_GUI_TITLE);
+    private Template[] buildMainTemplates(List<SlotConfiguration> configs) {
+        if (configs.size() <= PAGE_SIZE) {
+            return new Template[] { buildMainTemplate(configs, 0, 1) };
+        }
+
+        int pageCount = (configs.size() + PAGE_SIZE - 1) / PAGE_SIZE;
+        Template[] pages = new Template[pageCount];
+        for (int page = 0; page < pageCount; page++) {
+            int from = page * PAGE_SIZE;
+            pages[page] = buildMainTemplate(configs.subList(from, Math.min(configs.size(), from + PAGE_SIZE)),
+                    page, pageCount);
+        }
+        return pages;
+    }
+
+    private Template buildMainTemplate(List<SlotConfiguration> configs, int page, int pageCount) {
+        // Double chest size for beautiful layout; paged menus always use one
+        ItemStack[] contents = new ItemStack[pageCount > 1 ? 54 : getMainGUISize(configs.size())];
 
         // Create border
-        createBorder(mainGUI);
+        createBorder(contents);
 
         // Fill remaining with gray glass
-        fillInventory(mainGUI, FILLER_MATERIAL);
+        fillContents(contents, FILLER_MATERIAL);
 
         // Get centered positions for buttons
         int[] buttonPositions = getMainGUIButtonPositions(configs.size());
 
         int index = 0;
-        for (SlotConfiguration config : configs.values()) {
+        for (SlotConfiguration config : configs) {
             if (index >= buttonPositions.length)
                 break;
-            ItemStack button = createSlotButton(config);
-            mainGUI.setItem(buttonPositions[index++], button);
+            contents[buttonPositions[index++]] = createSlotButton(config);
         }
 
-        player.openInventory(mainGUI);
+        addPageButtons(contents, page, pageCount);
+        return new Template(null, MAIN_GUI_TITLE, contents, page, pageCount, 0, new int[0]);
     }
 
-    /**
-     * Opens the Tier 2 GUI for a specific slot type
-     * Dynamically sized and beautifully arranged based on slot count
-     */
-    public void openSlotItemsGUI(Player player, String slotType) {
-        SlotConfiguration config = plugin.getConfigManager().getSlotConfiguration(slotType);
-        if (config == null) {
-            player.sendMessage("§cInvalid slot type!");
-            return;
-        }
-
+    private Template[] buildSlotTemplates(SlotConfiguration config) {
         int slotAmount = config.getAmount();
+        if (slotAmount <= PAGE_SIZE) {
+            // Determine inventory size and get slot positions
+            int size = calculateSlotGUISize(slotAmount);
+            return new Template[] {
+                    buildSlotTemplate(config, size, calculateSlotPositions(slotAmount, size), 0, 1) };
+        }
 
-        // Determine inventory size and get slot positions
-        int size = calculateSlotGUISize(slotAmount);
-        int[] slotPositions = calculateSlotPositions(slotAmount, size);
-
-        // Cache the positions for this slot type
-        slotPositionCache.put(slotType, slotPositions);
+        // Too many for one screen: full pages of the 7x4 box, then the remainder
+        int pageCount = (slotAmount + PAGE_SIZE - 1) / PAGE_SIZE;
+        Template[] pages = new Template[pageCount];
+        for (int page = 0; page < pageCount; page++) {
+            int onPage = Math.min(PAGE_SIZE, slotAmount - page * PAGE_SIZE);
+            pages[page] = buildSlotTemplate(config, 54, gridPositions(onPage), page, pageCount);
+        }
+        return pages;
+    }
 
-        Inventory slotsGUI = Bukkit.createInventory(null, size, SLOTS_GUI_PREFIX + config.getName());
+    private Template buildSlotTemplate(SlotConfiguration config, int size, int[] slotPositions, int page,
+            int pageCount) {
+        ItemStack[] contents = new ItemStack[size];
 
         // Create border
-        createBorder(slotsGUI);
+        createBorder(contents);
 
         // Fill with gray glass
-        fillInventory(slotsGUI, FILLER_MATERIAL);
+        fillContents(contents, FILLER_MATERIAL);
 
         // Clear the accessory slots (remove filler)
         for (int slot : slotPositions) {
-            slotsGUI.setItem(slot, null);
+            contents[slot] = null;
         }
 
-        // Load current items
-        List<ItemStack> currentItems = plugin.getSlotManager().getAccessories(player.getUniqueId(), slotType);
-        for (int i = 0; i < currentItems.size() && i < slotPositions.length; i++) {
-            ItemStack item = currentItems.get(i);
-            if (item != null && item.getType() != org.bukkit.Material.AIR) {
-                slotsGUI.setItem(slotPositions[i], item);
-            }
+        addPageButtons(contents, page, pageCount);
+        return new Template(config.getKey(), SLOTS_GUI_PREFIX + config.getName(), contents, page, pageCount,
+                page * PAGE_SIZE, slotPositions);
+    }
+
+    private void addPageButtons(ItemStack[] contents, int page, int pageCount) {
+        if (pageCount <= 1) {
+            return;
         }
+        if (page > 0) {
+            contents[PREVIOUS_PAGE_SLOT] = createNavigationItem(Material.ARROW, "§e◀ Previous Page");
+        }
+        contents[PAGE_INFO_SLOT] = createNavigationItem(Material.PAPER, "§7Page §f" + (page + 1) + "§7/§f" + pageCount);
+        if (page < pageCount - 1) {
+            contents[NEXT_PAGE_SLOT] = createNavigationItem(Material.ARROW, "§eNext Page ▶");
+        }
+    }
 
-        player.openInventory(slotsGUI);
+    private ItemStack createNavigationItem(Material material, String name) {
+        ItemStack item = new ItemStack(material);
+        ItemMeta meta = item.getItemMeta();
+        if (meta != null) {
+            meta.setDisplayName(name);
+            item.setItemMeta(meta);
+        }
+        return item;
     }
 
     /**
@@ -237,11 +389,11 @@ public class AccessoryGUI {
         }
 
         if (slotAmount <= 12) {
-            // Rectangular pattern
-            return new int[] {
+            // Rectangular pattern, only as many cells as there are slots
+            return Arrays.copyOf(new int[] {
                     10, 11, 12, 13, 14, 15, 16,
                     19, 20, 21, 22, 23, 24, 25
-            };
+            }, slotAmount);
         }
 
         if (slotAmount <= 16) {
@@ -259,9 +411,16 @@ public class AccessoryGUI {
             return positions.stream().mapToInt(Integer::intValue).toArray();
         }
 
+        return gridPositions(slotAmount);
+    }
+
+    /**
+     * Rows of up to 7 centered slots starting below the top border. Used for
+     * large amounts and for every page of a paged GUI (at most {@link #PAGE_SIZE}).
+     */
+    private int[] gridPositions(int slotAmount) {
         // For large amounts: use most of the space efficiently
         List<Integer> positions = new ArrayList<>();
-        int usableRows = rows - 2; // Leave room for borders
         int startRow = 1;
 
         int itemsPerRow = Math.min(7, slotAmount); // Max 7 per row for aesthetics
@@ -282,24 +441,24 @@ public class AccessoryGUI {
     /**
      * Creates a decorative border around the inventory
      */
-    private void createBorder(Inventory inv) {
+    private void createBorder(ItemStack[] contents) {
         ItemStack border = createFillerItem(BORDER_MATERIAL);
-        int size = inv.getSize();
+        int size = contents.length;
 
         // Top row
         for (int i = 0; i < 9; i++) {
-            inv.setItem(i, border);
+            contents[i] = border;
         }
 
         // Bottom row
         for (int i = size - 9; i < size; i++) {
-            inv.setItem(i, border);
+            contents[i] = border;
         }
 
         // Sides
         for (int row = 1; row < (size / 9) - 1; row++) {
-            inv.setItem(row * 9, border); // Left
-            inv.setItem(row * 9 + 8, border); // Right
+            contents[row * 9] = border; // Left
+            contents[row * 9 + 8] = border; // Right
         }
     }
 
@@ -358,72 +517,42 @@ public class AccessoryGUI {
         return filler;
     }
 
-    private void fillInventory(Inventory inv, Material material) {
+    private void fillContents(ItemStack[] contents, Material material) {
         ItemStack filler = createFillerItem(material);
-        for (int i = 0; i < inv.getSize(); i++) {
-            if (inv.getItem(i) == null) {
-                inv.setItem(i, filler);
+        for (int i = 0; i < contents.length; i++) {
+            if (contents[i] == null) {
+                contents[i] = filler;
             }
         }
     }
 
-    /**
-     * Check if a slot in the inventory is an accessory slot (not a filler)
-     */
-    public boolean isAccessorySlot(Inventory inv, int slot) {
-        if (slot >= inv.getSize()) {
-            return false;
-        }
-
-        ItemStack item = inv.getItem(slot);
-
-        // Null or air = accessory slot
-        if (item == null || item.getType() == org.bukkit.Material.AIR) {
-            return true;
-        }
-
-        // Check if it's a filler item
-        Material type = item.getType();
-        if (type == FILLER_MATERIAL || type == BORDER_MATERIAL) {
-            return false;
-        }
-
-        // It's an actual item
-        return true;
-    }
-
     /**
      * Check if there's at least one empty accessory slot
      */
-    public boolean hasEmptyAccessorySlot(Inventory inv) {
-        for (int i = 0; i < inv.getSize(); i++) {
-            ItemStack item = inv.getItem(i);
-
-            if (item == null || item.getType() == org.bukkit.Material.AIR) {
-                // Check if this was supposed to be an accessory slot
-                if (isAccessorySlot(inv, i)) {
-                    return true;
-                }
-            }
-        }
-        return false;
+    public boolean hasEmptyAccessorySlot(AccessorySession session) {
+        return session.getFreeSlots() > 0;
     }
 
     /**
-     * Get the actual accessory slot positions for a slot type
+     * @deprecated titles are for display only; use {@link AccessorySession#of(org.bukkit.inventory.InventoryView)}
      */
-    public int[] getAccessorySlots(String slotType) {
-        return slotPositionCache.getOrDefault(slotType, new int[0]);
-    }
-
+    @Deprecated
     public static boolean isMainGUI(String title) {
         return MAIN_GUI_TITLE.equals(title);
     }
 
+    /**
+     * @deprecated use {@link AccessorySession#of(org.bukkit.inventory.InventoryView)}
+     */
+    @Deprecated
     public static boolean isSlotsGUI(String title) {
         return title.startsWith(SLOTS_GUI_PREFIX);
     }
 
+    /**
+     * @deprecated use {@link AccessorySession#getSlotType()}
+     */
+    @Deprecated
     public static String extractSlotTypeFromTitle(String title) {
         if (!isSlotsGUI(title)) {
             return null;
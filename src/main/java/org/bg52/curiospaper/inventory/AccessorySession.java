@@ -0,0 +1,226 @@
+package org.bg52.curiospaper.inventory;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
+import org.bukkit.inventory.InventoryView;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.List;
+
+/**
+ * Holder of an open accessory GUI. Identifies our inventories without looking
+ * at their titles and carries everything the listener needs for one viewer:
+ * the slot type (null for the main menu), where the accessory slots are, and
+ * the player's accessories as last written to the SlotManager.
+ */
+public class AccessorySession implements InventoryHolder {
+    private final String slotType;
+    private final int page;
+    private final int pageCount;
+    private final int firstIndex;
+    private final int[] slotPositions;
+    // Bit i is set if inventory slot i is an accessory slot (inventories have at most 54)
+    private final long slotMask;
+    // Item per accessory on this page as last written through to the SlotManager, null if empty
+    private final ItemStack[] equipped;
+    private Inventory inventory;
+    private int freeSlots;
+    // Shift-clicks accepted into this page that the next write-through has yet to count
+    private int reservedSlots = 0;
+    // Accessory slots (as a mask like slotMask) clicked since the last write-through
+    private long touchedSlots = 0L;
+    private boolean refreshPending = false;
+
+    /**
+     * @param firstIndex    accessory index of the first slot on this page
+     * @param slotPositions shared with the layout, never modified
+     * @param slotMask      {@link #maskOf(int[])} of the positions, precomputed per layout
+     * @param current       the player's items on this page, starting at firstIndex
+     */
+    AccessorySession(String slotType, int page, int pageCount, int firstIndex, int[] slotPositions, long slotMask,
+            List<ItemStack> current) {
+        this.slotType = slotType;
+        this.page = page;
+        this.pageCount = pageCount;
+        this.firstIndex = firstIndex;
+        this.slotPositions = slotPositions;
+        this.slotMask = slotMask;
+        this.equipped = new ItemStack[slotPositions.length];
+        this.freeSlots = slotPositions.length;
+
+        for (int i = 0; i < current.size() && i < equipped.length; i++) {
+            ItemStack item = current.get(i);
+            if (item != null && item.getType() != Material.AIR) {
+                equipped[i] = item;
+                freeSlots--;
+            }
+        }
+    }
+
+    static long maskOf(int[] slotPositions) {
+        long mask = 0L;
+        for (int position : slotPositions) {
+            mask |= 1L << position;
+        }
+        return mask;
+    }
+
+    /**
+     * @return the session of the view's top inventory, or null if it isn't one of ours
+     */
+    public static AccessorySession of(InventoryView view) {
+        return of(view.getTopInventory());
+    }
+
+    public static AccessorySession of(Inventory inventory) {
+        InventoryHolder holder = inventory.getHolder();
+        return holder instanceof AccessorySession ? (AccessorySession) holder : null;
+    }
+
+    @Override
+    public Inventory getInventory() {
+        return inventory;
+    }
+
+    void setInventory(Inventory inventory) {
+        this.inventory = inventory;
+    }
+
+    public boolean isMainMenu() {
+        return slotType == null;
+    }
+
+    /**
+     * @return the slot type shown, or null for the main menu
+     */
+    public String getSlotType() {
+        return slotType;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public int getPageCount() {
+        return pageCount;
+    }
+
+    /**
+     * @return page a click on this inventory slot navigates to, or -1 if it isn't a page button
+     */
+    public int getNavigationTarget(int rawSlot) {
+        if (rawSlot == AccessoryGUI.PREVIOUS_PAGE_SLOT && page > 0) {
+            return page - 1;
+        }
+        if (rawSlot == AccessoryGUI.NEXT_PAGE_SLOT && page < pageCount - 1) {
+            return page + 1;
+        }
+        return -1;
+    }
+
+    /**
+     * Converts a position on this page to the player's accessory index.
+     */
+    public int toAccessoryIndex(int index) {
+        return firstIndex + index;
+    }
+
+    /**
+     * @return inventory slot of each accessory on this page, in index order
+     */
+    public int[] getSlotPositions() {
+        return slotPositions.clone();
+    }
+
+    public int getSlotCount() {
+        return slotPositions.length;
+    }
+
+    public int getSlotPosition(int index) {
+        return slotPositions[index];
+    }
+
+    public boolean isAccessorySlot(int rawSlot) {
+        return rawSlot >= 0 && rawSlot < 64 && (slotMask & (1L << rawSlot)) != 0;
+    }
+
+    /**
+     * @return empty accessory slots as last written through, minus those
+     *         reserved by shift-clicks since
+     */
+    public int getFreeSlots() {
+        return freeSlots - reservedSlots;
+    }
+
+    /**
+     * Counts an accepted shift-click into this page as taking a free slot
+     * until the write-through, which runs a tick later, sees the item.
+     */
+    public void reserveFreeSlot() {
+        reservedSlots++;
+    }
+
+    /**
+     * @return the item at a position on this page as last written through, or null
+     */
+    public ItemStack getEquipped(int index) {
+        return equipped[index];
+    }
+
+    public void setEquipped(int index, ItemStack item) {
+        if (item != null && item.getType() == Material.AIR) {
+            item = null;
+        }
+        if (equipped[index] == null && item != null) {
+            freeSlots--;
+        } else if (equipped[index] != null && item == null) {
+            freeSlots++;
+        }
+        equipped[index] = item;
+    }
+
+    /**
+     * Marks an inventory slot as changed by a click; non-accessory slots are ignored.
+     */
+    public void touch(int rawSlot) {
+        if (isAccessorySlot(rawSlot)) {
+            touchedSlots |= 1L << rawSlot;
+        }
+    }
+
+    /**
+     * Marks every accessory slot as changed, for clicks whose target can't be known up front.
+     */
+    public void touchAll() {
+        touchedSlots = slotMask;
+    }
+
+    /**
+     * @return accessory slots touched since the last call, as a mask of inventory slots
+     */
+    public long takeTouchedSlots() {
+        long touched = touchedSlots;
+        touchedSlots = 0L;
+        // The write-through recounts the free slots from the inventory itself
+        reservedSlots = 0;
+        return touched;
+    }
+
+    /**
+     * Marks a post-click refresh as scheduled.
+     *
+     * @return false if one is already pending for this tick
+     */
+    public boolean markRefreshPending() {
+        if (refreshPending) {
+            return false;
+        }
+        refreshPending = true;
+        return true;
+    }
+
+    public void clearRefreshPending() {
+        refreshPending = false;
+    }
+}
@@ -4,7 +4,9 @@ package org.bg52.curiospaper.listener;
 import org.bg52.curiospaper.CuriosPaper;
 import org.bg52.curiospaper.data.AbilityData;
 import org.bg52.curiospaper.data.ItemData;
-import org.bg52.curiospaper.event.AccessoryEquipEvent;
+import org.bg52.curiospaper.data.SetBonusData;
+import org.bg52.curiospaper.event.AccessoryLoadoutChangeEvent;
+import org.bg52.curiospaper.manager.EquippedItemIndex;
 import org.bg52.curiospaper.manager.ItemDataManager;
 import org.bukkit.attribute.Attribute;
 import org.bukkit.attribute.AttributeInstance;
@@ -13,7 +15,10 @@ import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.inventory.ItemStack;
+import org.bukkit.persistence.PersistentDataType;
 import org.bukkit.potion.PotionEffect;
 import org.bukkit.potion.PotionEffectType;
 import org.bukkit.scheduler.BukkitRunnable;
@@ -21,13 +26,23 @@ import org.bukkit.scheduler.BukkitRunnable;
 import java.util.*;
 
 /**
- * Listens for AccessoryEquipEvent and applies/removes abilities based on
- * equipped items
+ * Listens for AccessoryLoadoutChangeEvent and applies/removes abilities based on
+ * equipped items. Set piece counts are read from the EquippedItemIndex for
+ * the sets a batch touches and compared with the count the player's tiers
+ * were last evaluated at, so tiers are only applied or removed when a
+ * threshold is crossed. The tiers of each set are read from all item
+ * data up front and re-read, with every player's tiers re-evaluated, whenever
+ * ItemDataManager saves, loads, deletes or reloads items.
  */
 public class AbilityListener implements Listener {
     private final CuriosPaper plugin;
     private final ItemDataManager itemDataManager;
     private final Map<UUID, Set<String>> activeModifiers; // player UUID -> set of modifier IDs
+    // Player UUID -> set ID -> equipped pieces the applied tiers were last evaluated at
+    private final Map<UUID, Map<String, Integer>> setPieceCounts;
+    // Set ID -> copies of the bonus tiers of the first piece (by item ID) listing any
+    private final Map<String, List<SetBonusData>> setDefinitions;
+    private final Map<String, Set<String>> setMembers; // set ID -> IDs of its pieces
     private BukkitRunnable whileEquippedTask;
 
     private static final String MODIFIER_PREFIX = "curiospaper_ability_";
@@ -36,49 +51,209 @@ public class AbilityListener implements Listener {
         this.plugin = plugin;
         this.itemDataManager = plugin.getItemDataManager();
         this.activeModifiers = new HashMap<>();
+        this.setPieceCounts = new HashMap<>();
+        this.setDefinitions = new HashMap<>();
+        this.setMembers = new HashMap<>();
+        loadSetDefinitions();
         startWhileEquippedTask();
     }
 
     @EventHandler(priority = EventPriority.NORMAL)
-    public void onAccessoryEquip(AccessoryEquipEvent event) {
+    public void onLoadoutChange(AccessoryLoadoutChangeEvent event) {
         Player player = event.getPlayer();
-        ItemStack previousItem = event.getPreviousItem();
-        ItemStack newItem = event.getNewItem();
 
-        // Remove abilities from previous item (if any)
-        if (previousItem != null && previousItem.getType() != org.bukkit.Material.AIR) {
-            String prevItemId = getItemId(previousItem);
+        // Net count per item id across the whole batch, so an item that only moved
+        // between slots is neither removed nor re-applied
+        Map<String, Integer> delta = new LinkedHashMap<>();
+        for (AccessoryLoadoutChangeEvent.Change change : event.getChanges()) {
+            String prevItemId = getItemId(change.getPreviousItem());
             if (prevItemId != null) {
-                ItemData prevData = itemDataManager.getItemData(prevItemId);
-                if (prevData != null) {
-                    removeAbilities(player, prevData, AbilityData.TriggerType.EQUIP);
-                    removeAbilities(player, prevData, AbilityData.TriggerType.WHILE_EQUIPPED);
-                    // Apply DE_EQUIP trigger
-                    applyAbilities(player, prevData, AbilityData.TriggerType.DE_EQUIP);
+                delta.merge(prevItemId, -1, Integer::sum);
+            }
+            String newItemId = getItemId(change.getNewItem());
+            if (newItemId != null) {
+                delta.merge(newItemId, 1, Integer::sum);
+            }
+        }
+
+        // Remove abilities from previous items first
+        for (Map.Entry<String, Integer> entry : delta.entrySet()) {
+            ItemData prevData = entry.getValue() < 0 ? itemDataManager.getItemData(entry.getKey()) : null;
+            if (prevData == null)
+                continue;
+            for (int i = 0; i < -entry.getValue(); i++) {
+                removeAbilities(player, prevData, AbilityData.TriggerType.EQUIP);
+                removeAbilities(player, prevData, AbilityData.TriggerType.WHILE_EQUIPPED);
+                // Apply DE_EQUIP trigger
+                applyAbilities(player, prevData, AbilityData.TriggerType.DE_EQUIP);
+            }
+        }
+
+        // Apply abilities from new items
+        for (Map.Entry<String, Integer> entry : delta.entrySet()) {
+            ItemData newData = entry.getValue() > 0 ? itemDataManager.getItemData(entry.getKey()) : null;
+            if (newData == null)
+                continue;
+            for (int i = 0; i < entry.getValue(); i++) {
+                // Apply EQUIP trigger
+                applyAbilities(player, newData, AbilityData.TriggerType.EQUIP);
+            }
+        }
+
+        // Sets of the changed items, resolved by the ID the EquippedItemIndex counts
+        Set<String> setIds = new HashSet<>();
+        for (AccessoryLoadoutChangeEvent.Change change : event.getChanges()) {
+            addSetId(setIds, change.getPreviousItem());
+            addSetId(setIds, change.getNewItem());
+        }
+        updateSetBonuses(player, setIds);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        Player player = event.getPlayer();
+
+        // Evaluate every set once against the loaded accessories
+        setPieceCounts.remove(player.getUniqueId());
+        updateSetBonuses(player, setMembers.keySet());
+    }
+
+    @EventHandler
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        setPieceCounts.remove(event.getPlayer().getUniqueId());
+    }
+
+    /**
+     * Rebuilds the set bonus tiers from all item data and re-evaluates every
+     * online player against them: tiers reached under the old definitions are
+     * removed, then the tiers reached by the current counts are applied.
+     * Called by ItemDataManager whenever item data changes.
+     */
+    public void reloadSetBonuses() {
+        Map<String, List<SetBonusData>> previousDefinitions = new HashMap<>(setDefinitions);
+        loadSetDefinitions();
+
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            Map<String, Integer> previousCounts = setPieceCounts.remove(player.getUniqueId());
+            if (previousCounts != null) {
+                for (Map.Entry<String, Integer> entry : previousCounts.entrySet()) {
+                    List<SetBonusData> tiers = previousDefinitions.get(entry.getKey());
+                    if (tiers == null)
+                        continue;
+                    for (SetBonusData tier : tiers) {
+                        if (entry.getValue() >= tier.getPieces()) {
+                            String sourceId = getSetBonusSourceId(entry.getKey(), tier);
+                            removeAbilities(player, tier.getAbilities(), sourceId, AbilityData.TriggerType.EQUIP);
+                            removeAbilities(player, tier.getAbilities(), sourceId,
+                                    AbilityData.TriggerType.WHILE_EQUIPPED);
+                        }
+                    }
                 }
             }
+            updateSetBonuses(player, setMembers.keySet());
         }
+    }
 
-        // Apply abilities from new item (if any)
-        if (newItem != null && newItem.getType() != org.bukkit.Material.AIR) {
-            String newItemId = getItemId(newItem);
-            if (newItemId != null) {
-                ItemData newData = itemDataManager.getItemData(newItemId);
-                if (newData != null) {
-                    // Apply EQUIP trigger
-                    applyAbilities(player, newData, AbilityData.TriggerType.EQUIP);
+    /**
+     * Reads the bonus tiers of every set from the loaded item data. Tiers are
+     * copied, so editing an item in place can't change what was applied
+     * before it is saved.
+     */
+    private void loadSetDefinitions() {
+        setDefinitions.clear();
+        setMembers.clear();
+        for (ItemData data : new TreeMap<>(itemDataManager.getAllItems()).values()) {
+            if (data.getSetId() == null)
+                continue;
+            setMembers.computeIfAbsent(data.getSetId(), k -> new HashSet<>()).add(data.getItemId());
+            if (data.getSetBonuses().isEmpty() || setDefinitions.containsKey(data.getSetId()))
+                continue;
+            List<SetBonusData> tiers = new ArrayList<>();
+            for (SetBonusData tier : data.getSetBonuses()) {
+                List<AbilityData> abilities = new ArrayList<>();
+                for (AbilityData ability : tier.getAbilities()) {
+                    abilities.add(new AbilityData(ability.getTrigger(), ability.getEffectType(),
+                            ability.getEffectName(), ability.getAmplifier(), ability.getDuration()));
                 }
+                tiers.add(new SetBonusData(tier.getPieces(), abilities));
             }
+            setDefinitions.put(data.getSetId(), tiers);
         }
     }
 
+    /**
+     * Adds the set of a custom item, looked up by its stored item ID
+     */
+    private void addSetId(Set<String> setIds, ItemStack item) {
+        if (item == null || !item.hasItemMeta())
+            return;
+        String itemId = item.getItemMeta().getPersistentDataContainer()
+                .get(plugin.getCuriosPaperAPI().getItemIdKey(), PersistentDataType.STRING);
+        ItemData data = itemId != null ? itemDataManager.getItemData(itemId) : null;
+        if (data != null && data.getSetId() != null) {
+            setIds.add(data.getSetId());
+        }
+    }
+
+    /**
+     * Counts the player's equipped pieces of the given sets in the
+     * EquippedItemIndex and applies or removes the bonus tiers whose
+     * threshold was crossed since they were last evaluated
+     */
+    private void updateSetBonuses(Player player, Collection<String> setIds) {
+        if (setIds.isEmpty())
+            return;
+
+        EquippedItemIndex index = plugin.getSlotManager().getEquippedItemIndex();
+        Map<String, Integer> counts = setPieceCounts.computeIfAbsent(player.getUniqueId(), k -> new HashMap<>());
+        for (String setId : setIds) {
+            int oldCount = counts.getOrDefault(setId, 0);
+            int newCount = 0;
+            for (String itemId : setMembers.getOrDefault(setId, Collections.emptySet())) {
+                newCount += index.countEquipped(player.getUniqueId(), itemId);
+            }
+            if (newCount > 0) {
+                counts.put(setId, newCount);
+            } else {
+                counts.remove(setId);
+            }
+
+            List<SetBonusData> tiers = setDefinitions.get(setId);
+            if (tiers == null || oldCount == newCount)
+                continue;
+
+            for (SetBonusData tier : tiers) {
+                String sourceId = getSetBonusSourceId(setId, tier);
+                if (oldCount < tier.getPieces() && newCount >= tier.getPieces()) {
+                    applyAbilities(player, tier.getAbilities(), sourceId, AbilityData.TriggerType.EQUIP);
+                } else if (oldCount >= tier.getPieces() && newCount < tier.getPieces()) {
+                    removeAbilities(player, tier.getAbilities(), sourceId, AbilityData.TriggerType.EQUIP);
+                    removeAbilities(player, tier.getAbilities(), sourceId, AbilityData.TriggerType.WHILE_EQUIPPED);
+                    applyAbilities(player, tier.getAbilities(), sourceId, AbilityData.TriggerType.DE_EQUIP);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the ID set bonus modifiers are keyed by, in place of an item ID
+     */
+    private String getSetBonusSourceId(String setId, SetBonusData tier) {
+        return "set-" + setId + "-" + tier.getPieces();
+    }
+
     /**
      * Applies abilities with the specified trigger type
      */
     private void applyAbilities(Player player, ItemData itemData, AbilityData.TriggerType trigger) {
-        for (AbilityData ability : itemData.getAbilities()) {
+        applyAbilities(player, itemData.getAbilities(), itemData.getItemId(), trigger);
+    }
+
+    private void applyAbilities(Player player, List<AbilityData> abilities, String sourceId,
+            AbilityData.TriggerType trigger) {
+        for (AbilityData ability : abilities) {
             if (ability.getTrigger() == trigger) {
-                applyAbility(player, ability, itemData.getItemId());
+                applyAbility(player, ability, sourceId);
             }
         }
     }
@@ -87,9 +262,14 @@ public class AbilityListener implements Listener {
      * Removes abilities with the specified trigger type
      */
     private void removeAbilities(Player player, ItemData itemData, AbilityData.TriggerType trigger) {
-        for (AbilityData ability : itemData.getAbilities()) {
+        removeAbilities(player, itemData.getAbilities(), itemData.getItemId(), trigger);
+    }
+
+    private void removeAbilities(Player player, List<AbilityData> abilities, String sourceId,
+            AbilityData.TriggerType trigger) {
+        for (AbilityData ability : abilities) {
             if (ability.getTrigger() == trigger) {
-                removeAbility(player, ability, itemData.getItemId());
+                removeAbility(player, ability, sourceId);
             }
         }
     }
@@ -256,6 +436,22 @@ public class AbilityListener implements Listener {
                 }
             }
         }
+
+        // Apply WHILE_EQUIPPED abilities of reached set bonus tiers, straight from the counters
+        Map<String, Integer> counts = setPieceCounts.get(player.getUniqueId());
+        if (counts == null)
+            return;
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            List<SetBonusData> tiers = setDefinitions.get(entry.getKey());
+            if (tiers == null)
+                continue;
+            for (SetBonusData tier : tiers) {
+                if (entry.getValue() >= tier.getPieces()) {
+                    applyAbilities(player, tier.getAbilities(), getSetBonusSourceId(entry.getKey(), tier),
+                            AbilityData.TriggerType.WHILE_EQUIPPED);
+                }
+            }
+        }
     }
 
     public void shutdown() {
@@ -294,9 +490,14 @@ public class AbilityListener implements Listener {
             }
         }
         activeModifiers.clear();
+        setPieceCounts.clear();
     }
 
-    private Attribute getAttributeFromName(String name) {
+    /**
+     * Resolves an ability's effect name, either the enum name or the formatted
+     * name shown in the editor, to an attribute
+     */
+    public static Attribute getAttributeFromName(String name) {
         // Try direct match first
         for (Attribute attr : Attribute.values()) {
             if (attr.name().equalsIgnoreCase(name)) { // 1.14 compatible
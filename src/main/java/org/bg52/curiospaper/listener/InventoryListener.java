@@ -1,12 +1,14 @@
 package org.bg52.curiospaper.listener;
 
 import org.bg52.curiospaper.CuriosPaper;
-import org.bg52.curiospaper.event.AccessoryEquipEvent;
+import org.bg52.curiospaper.event.AccessoryLoadoutChangeEvent;
 import org.bg52.curiospaper.inventory.AccessoryGUI;
+import org.bg52.curiospaper.inventory.AccessorySession;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
+import org.bukkit.event.inventory.InventoryAction;
 import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.event.inventory.InventoryCloseEvent;
 import org.bukkit.event.inventory.InventoryDragEvent;
@@ -15,40 +17,42 @@ import org.bukkit.inventory.ItemStack;
 import org.bukkit.persistence.PersistentDataType;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 public class InventoryListener implements Listener {
     private final CuriosPaper plugin;
     private final AccessoryGUI gui;
-    private final Map<Player, Map<String, List<ItemStack>>> previousInventoryState;
 
     public InventoryListener(CuriosPaper plugin, AccessoryGUI gui) {
         this.plugin = plugin;
         this.gui = gui;
-        this.previousInventoryState = new HashMap<>();
     }
 
     @EventHandler
     public void onInventoryClick(InventoryClickEvent event) {
-        if (!(event.getWhoClicked() instanceof Player)) {
+        AccessorySession session = AccessorySession.of(event.getView());
+        if (session == null || !(event.getWhoClicked() instanceof Player)) {
             return;
         }
         Player player = (Player) event.getWhoClicked();
 
-        String title = event.getView().getTitle();
-
-        if (AccessoryGUI.isMainGUI(title)) {
-            handleMainGUIClick(event, player);
-        } else if (AccessoryGUI.isSlotsGUI(title)) {
-            handleSlotsGUIClick(event, player, title);
+        if (session.isMainMenu()) {
+            handleMainGUIClick(event, player, session);
+        } else {
+            handleSlotsGUIClick(event, player, session);
         }
     }
 
-    private void handleMainGUIClick(InventoryClickEvent event, Player player) {
+    private void handleMainGUIClick(InventoryClickEvent event, Player player, AccessorySession session) {
         event.setCancelled(true);
 
+        int targetPage = session.getNavigationTarget(event.getRawSlot());
+        if (targetPage >= 0) {
+            gui.openMainGUI(player, targetPage);
+            return;
+        }
+
         ItemStack clickedItem = event.getCurrentItem();
         if (clickedItem == null || !clickedItem.hasItemMeta()) {
             return;
@@ -58,17 +62,12 @@ public class InventoryListener implements Listener {
                 .get(plugin.getSlotTypeKey(), PersistentDataType.STRING);
 
         if (slotType != null) {
-            // Store current state before opening Tier 2 GUI
-            storeInventoryState(player, slotType);
             gui.openSlotItemsGUI(player, slotType);
         }
     }
 
-    private void handleSlotsGUIClick(InventoryClickEvent event, Player player, String title) {
-        String slotType = AccessoryGUI.extractSlotTypeFromTitle(title);
-        if (slotType == null) {
-            return;
-        }
+    private void handleSlotsGUIClick(InventoryClickEvent event, Player player, AccessorySession session) {
+        String slotType = session.getSlotType();
 
         int rawSlot = event.getRawSlot();
         if (rawSlot < 0) {
@@ -79,8 +78,14 @@ public class InventoryListener implements Listener {
         // Check if clicking in the top (accessory) inventory
         if (rawSlot < topInventory.getSize()) {
             // Check if this is a valid accessory slot or a filler slot
-            if (!gui.isAccessorySlot(topInventory, rawSlot)) {
+            if (!session.isAccessorySlot(rawSlot)) {
                 event.setCancelled(true);
+
+                int targetPage = session.getNavigationTarget(rawSlot);
+                if (targetPage >= 0) {
+                    // Closing this page writes it through before the next one loads
+                    gui.openSlotItemsGUI(player, slotType, targetPage);
+                }
                 return;
             }
         }
@@ -99,17 +104,19 @@ public class InventoryListener implements Listener {
                 }
 
                 // Check if there's space in accessory slots
-                if (!gui.hasEmptyAccessorySlot(topInventory)) {
+                if (!gui.hasEmptyAccessorySlot(session)) {
                     event.setCancelled(true);
                     player.sendMessage("§cNo empty slots available!");
                     return;
                 }
+                // Another shift-click this tick must not count the same slot as free
+                session.reserveFreeSlot();
             }
         }
 
         // Handle placing item from cursor into accessory GUI
         if (cursorItem != null && cursorItem.getType() != org.bukkit.Material.AIR && clickedInventory == topInventory) {
-            if (!gui.isAccessorySlot(topInventory, rawSlot)) {
+            if (!session.isAccessorySlot(rawSlot)) {
                 event.setCancelled(true);
                 return;
             }
@@ -136,7 +143,7 @@ public class InventoryListener implements Listener {
 
         // Handle hotbar swapping
         if (event.getClick().isKeyboardClick() && clickedInventory == topInventory) {
-            if (!gui.isAccessorySlot(topInventory, rawSlot)) {
+            if (!session.isAccessorySlot(rawSlot)) {
                 event.setCancelled(true);
                 return;
             }
@@ -151,65 +158,107 @@ public class InventoryListener implements Listener {
             }
         }
 
+        // Only clicks that can move items in or out of the accessory slots need a write-through
+        if (event.getAction() == InventoryAction.COLLECT_TO_CURSOR
+                || (event.isShiftClick() && clickedInventory != topInventory)) {
+            // Affected slots are picked by the server
+            session.touchAll();
+            scheduleWriteThrough(player, session);
+        } else if (clickedInventory == topInventory) {
+            session.touch(rawSlot);
+            scheduleWriteThrough(player, session);
+        }
+    }
+
+    /**
+     * Runs {@link #writeThrough} once the click has been applied, at most once
+     * per session and tick.
+     */
+    private void scheduleWriteThrough(Player player, AccessorySession session) {
+        if (!session.markRefreshPending()) {
+            return;
+        }
         Bukkit.getScheduler().runTask(plugin, () -> {
-            Inventory topInventoryAfter = event.getView().getTopInventory();
-            enforceSingleItemPerAccessorySlot(player, topInventoryAfter, slotType);
+            session.clearRefreshPending();
+            writeThrough(player, session);
         });
     }
 
-    private void enforceSingleItemPerAccessorySlot(Player player, Inventory topInventory, String slotType) {
-        // Get the real accessory slot positions for this slot type
-        int[] accessorySlots = gui.getAccessorySlots(slotType);
-        if (accessorySlots == null || accessorySlots.length == 0) {
+    /**
+     * Applies the accessory slots touched since the last call to the
+     * SlotManager, one index at a time. Stacks are trimmed to a single item and
+     * every index whose item actually changed goes into one batch of events.
+     */
+    private void writeThrough(Player player, AccessorySession session) {
+        long touched = session.takeTouchedSlots();
+        if (touched == 0L) {
             return;
         }
+        Inventory topInventory = session.getInventory();
+        String slotType = session.getSlotType();
+        List<AccessoryLoadoutChangeEvent.Change> changes = new ArrayList<>();
 
-        for (int slot : accessorySlots) {
-            if (slot < 0 || slot >= topInventory.getSize())
+        for (int i = 0; i < session.getSlotCount(); i++) {
+            int slot = session.getSlotPosition(i);
+            if ((touched & (1L << slot)) == 0L) {
                 continue;
+            }
 
             ItemStack item = topInventory.getItem(slot);
-            if (item == null || item.getType() == org.bukkit.Material.AIR)
-                continue;
+            if (item != null && item.getType() != org.bukkit.Material.AIR && item.getAmount() > 1) {
+                giveBackExtras(player, item);
+            }
 
-            int amount = item.getAmount();
-            if (amount <= 1)
+            ItemStack newItem = item != null && item.getType() != org.bukkit.Material.AIR ? item.clone() : null;
+            ItemStack oldItem = session.getEquipped(i);
+            if (oldItem == null ? newItem == null : oldItem.equals(newItem)) {
                 continue;
+            }
+
+            session.setEquipped(i, newItem);
+            int index = session.toAccessoryIndex(i);
+            plugin.getSlotManager().setAccessoryItem(player.getUniqueId(), slotType, index, newItem);
+            changes.add(new AccessoryLoadoutChangeEvent.Change(slotType, index, oldItem, newItem));
+        }
 
-            // Keep exactly 1 in the accessory slot
-            item.setAmount(1);
+        AccessoryLoadoutChangeEvent.dispatch(player, changes);
+    }
 
-            int extra = amount - 1;
-            ItemStack extraStack = item.clone();
-            extraStack.setAmount(extra);
+    /**
+     * Keeps exactly one item of a stack in an accessory slot and returns the rest.
+     */
+    private void giveBackExtras(Player player, ItemStack item) {
+        int amount = item.getAmount();
 
-            // Try to give extras back to the player's inventory
-            Map<Integer, ItemStack> leftovers = player.getInventory().addItem(extraStack);
+        // Keep exactly 1 in the accessory slot
+        item.setAmount(1);
 
-            // If inventory is full, drop leftovers on the ground
-            if (!leftovers.isEmpty()) {
-                leftovers.values()
-                        .forEach(leftover -> player.getWorld().dropItemNaturally(player.getLocation(), leftover));
-            }
+        int extra = amount - 1;
+        ItemStack extraStack = item.clone();
+        extraStack.setAmount(extra);
+
+        // Try to give extras back to the player's inventory
+        Map<Integer, ItemStack> leftovers = player.getInventory().addItem(extraStack);
+
+        // If inventory is full, drop leftovers on the ground
+        if (!leftovers.isEmpty()) {
+            leftovers.values()
+                    .forEach(leftover -> player.getWorld().dropItemNaturally(player.getLocation(), leftover));
         }
     }
 
     @EventHandler
     public void onInventoryDrag(InventoryDragEvent event) {
-        if (!(event.getWhoClicked() instanceof Player)) {
+        AccessorySession session = AccessorySession.of(event.getView());
+        if (session == null || !(event.getWhoClicked() instanceof Player)) {
             return;
         }
         Player player = (Player) event.getWhoClicked();
 
-        String title = event.getView().getTitle();
-
-        if (AccessoryGUI.isMainGUI(title)) {
+        if (session.isMainMenu()) {
             event.setCancelled(true);
-        } else if (AccessoryGUI.isSlotsGUI(title)) {
-            String slotType = AccessoryGUI.extractSlotTypeFromTitle(title);
-            if (slotType == null) {
-                return;
-            }
+        } else {
+            String slotType = session.getSlotType();
 
             Inventory topInventory = event.getView().getTopInventory();
             ItemStack draggedItem = event.getOldCursor();
@@ -217,10 +266,11 @@ public class InventoryListener implements Listener {
             // Check if any dragged slots are filler slots or invalid
             for (int rawSlot : event.getRawSlots()) {
                 if (rawSlot < topInventory.getSize()) {
-                    if (!gui.isAccessorySlot(topInventory, rawSlot)) {
+                    if (!session.isAccessorySlot(rawSlot)) {
                         event.setCancelled(true);
                         return;
                     }
+                    session.touch(rawSlot);
                 }
             }
 
@@ -230,93 +280,21 @@ public class InventoryListener implements Listener {
                     player.sendMessage("§cThat item cannot be placed in this slot type!");
                 }
             }
-            Bukkit.getScheduler().runTask(plugin, () -> {
-                Inventory topInventoryAfter = event.getView().getTopInventory();
-                enforceSingleItemPerAccessorySlot(player, topInventoryAfter, slotType);
-            });
+            scheduleWriteThrough(player, session);
         }
     }
 
     @EventHandler
     public void onInventoryClose(InventoryCloseEvent event) {
-        if (!(event.getPlayer() instanceof Player)) {
+        AccessorySession session = AccessorySession.of(event.getInventory());
+        if (session == null || session.isMainMenu() || !(event.getPlayer() instanceof Player)) {
             return;
         }
         Player player = (Player) event.getPlayer();
 
-        String title = event.getView().getTitle();
-
-        if (AccessoryGUI.isSlotsGUI(title)) {
-            String slotType = AccessoryGUI.extractSlotTypeFromTitle(title);
-            if (slotType == null) {
-                return;
-            }
-
-            Inventory inventory = event.getInventory();
-
-            // Get only the actual accessory slots (not filler items)
-            int[] accessorySlots = gui.getAccessorySlots(slotType);
-            List<ItemStack> newItems = new ArrayList<>();
-
-            for (int slot : accessorySlots) {
-                ItemStack item = inventory.getItem(slot);
-                newItems.add(item != null && item.getType() != org.bukkit.Material.AIR ? item.clone() : null);
-            }
-
-            // Get previous state to detect changes
-            Map<String, List<ItemStack>> previousState = previousInventoryState.get(player);
-            List<ItemStack> previousItems = previousState != null ? previousState.get(slotType) : new ArrayList<>();
-
-            // Save the new state
-            plugin.getSlotManager().setAccessories(player.getUniqueId(), slotType, newItems);
-            plugin.getSlotManager().savePlayerData(player);
-
-            // Fire events for changes
-            fireEquipEvents(player, slotType, previousItems, newItems);
-
-            // Clean up stored state
-            previousInventoryState.remove(player);
-        }
-    }
-
-    private void storeInventoryState(Player player, String slotType) {
-        List<ItemStack> currentItems = plugin.getSlotManager().getAccessories(player.getUniqueId(), slotType);
-        Map<String, List<ItemStack>> stateMap = previousInventoryState.computeIfAbsent(player, k -> new HashMap<>());
-        stateMap.put(slotType, new ArrayList<>(currentItems));
-    }
-
-    private void fireEquipEvents(Player player, String slotType, List<ItemStack> oldItems, List<ItemStack> newItems) {
-        int maxSize = Math.max(oldItems.size(), newItems.size());
-
-        for (int i = 0; i < maxSize; i++) {
-            ItemStack oldItem = i < oldItems.size() ? oldItems.get(i) : null;
-            ItemStack newItem = i < newItems.size() ? newItems.get(i) : null;
-
-            // Normalize nulls and air
-            boolean oldEmpty = oldItem == null || oldItem.getType() == org.bukkit.Material.AIR;
-            boolean newEmpty = newItem == null || newItem.getType() == org.bukkit.Material.AIR;
-
-            if (oldEmpty && newEmpty) {
-                continue; // No change
-            }
-
-            if (!oldEmpty && newEmpty) {
-                // Item was unequipped
-                AccessoryEquipEvent equipEvent = new AccessoryEquipEvent(
-                        player, slotType, i, oldItem, null, AccessoryEquipEvent.Action.UNEQUIP);
-                Bukkit.getPluginManager().callEvent(equipEvent);
-            } else if (oldEmpty && !newEmpty) {
-                // Item was equipped
-                AccessoryEquipEvent equipEvent = new AccessoryEquipEvent(
-                        player, slotType, i, null, newItem, AccessoryEquipEvent.Action.EQUIP);
-                Bukkit.getPluginManager().callEvent(equipEvent);
-            } else if (!oldItem.equals(newItem)) {
-                // Item was swapped
-                AccessoryEquipEvent equipEvent = new AccessoryEquipEvent(
-                        player, slotType, i, oldItem, newItem, AccessoryEquipEvent.Action.SWAP);
-                Bukkit.getPluginManager().callEvent(equipEvent);
-            }
-        }
+        // Every change is already in the SlotManager except a click from this very tick
+        writeThrough(player, session);
+        plugin.getSlotManager().savePlayerData(player);
     }
 
     private boolean hasInventorySpace(Player player, ItemStack item) {
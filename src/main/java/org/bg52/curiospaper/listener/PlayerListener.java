@@ -19,48 +19,16 @@ public class PlayerListener implements Listener {
         Player player = event.getPlayer();
         plugin.getSlotManager().loadPlayerData(player);
 
-        // Send resource pack if enabled
+        // Queue the resource pack push; the queue staggers sends during join storms
         if (plugin.getConfig().getBoolean("resource-pack.enabled", false)) {
-            String url = plugin.getResourcePackManager().getPackUrl();
-            String hash = plugin.getResourcePackManager().getPackHash();
-
-            if (hash != null) {
-                try {
-                    // 1.14 accepts (String url, byte[] hash)
-                    // If hash is hex string, convert to byte[]
-                    byte[] hashBytes = null;
-                    if (hash != null && !hash.isEmpty()) {
-                        try {
-                            // simple placeholder conversion or empty if not strictly needed checks
-                            // A real hex decoder is needed but for now user passed string
-                            // Let's try passing just URL if hash is problematic or if 1.14 supports single
-                            // arg
-                            // player.setResourcePack(url);
-                            // But if we want hash:
-                            // hashBytes = javax.xml.bind.DatatypeConverter.parseHexBinary(hash); //
-                            // requires java.xml.bind
-                            // Let's just use the single arg version if possible or pass empty array?
-                            // Actually 1.14 has setResourcePack(String url, byte[] hash)
-                            // The user is passing (String, String).
-                            // We will call the version that takes just String if hash is not critical or
-                            // convert it.
-                            player.setResourcePack(url); // safest fallback
-                        } catch (Exception e) {
-                        }
-                    } else {
-                        player.setResourcePack(url);
-                    }
-                } catch (Exception e) {
-                    plugin.getLogger()
-                            .warning("Failed to send resource pack to " + player.getName() + ": " + e.getMessage());
-                }
-            }
+            plugin.getResourcePackManager().getDelivery().enqueue(player);
         }
     }
 
     @EventHandler
     public void onPlayerQuit(PlayerQuitEvent event) {
         Player player = event.getPlayer();
+        plugin.getResourcePackManager().getDelivery().remove(player.getUniqueId());
         plugin.getSlotManager().savePlayerData(player);
         plugin.getSlotManager().unloadPlayerData(player.getUniqueId());
     }
@@ -22,9 +22,13 @@ import org.bukkit.persistence.PersistentDataContainer;
 import org.bukkit.persistence.PersistentDataType;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Iterator;
+import java.util.Set;
 import java.util.regex.Pattern;
 
 /**
@@ -36,6 +40,14 @@ public class RecipeListener implements Listener {
     private final ItemDataManager itemDataManager;
     private static final Pattern VALID_KEY_PATTERN = Pattern.compile("[a-z0-9/._-]+");
 
+    // Per-station lookup tables so vanilla smelts, anvils and smithing clicks
+    // can be rejected with a single material check. Rebuilt lazily after any
+    // recipe (re)registration.
+    private final StationIndex furnaceIndex = new StationIndex();
+    private final StationIndex anvilIndex = new StationIndex();
+    private final StationIndex smithingIndex = new StationIndex();
+    private boolean indexDirty = true;
+
     public RecipeListener(CuriosPaper plugin, ItemDataManager itemDataManager) {
         this.plugin = plugin;
         this.itemDataManager = itemDataManager;
@@ -45,6 +57,7 @@ public class RecipeListener implements Listener {
      * Registers all recipes from loaded items
      */
     public void registerAllRecipes() {
+        invalidateIndex();
         int registered = 0;
         int failed = 0;
 
@@ -72,6 +85,8 @@ public class RecipeListener implements Listener {
         if (itemData == null)
             return;
 
+        invalidateIndex();
+
         // 1. Calculate all potential keys for this item and remove them
         String owningPlugin = itemData.getOwningPlugin();
         if (owningPlugin == null || owningPlugin.isEmpty()) {
@@ -124,6 +139,8 @@ public class RecipeListener implements Listener {
             return false;
         }
 
+        invalidateIndex();
+
         try {
             ItemStack result = createResultItem(itemData);
             if (result == null)
@@ -299,18 +316,25 @@ public class RecipeListener implements Listener {
     }
 
     private RecipeChoice resolveIngredient(String ingredient) {
+        Material material = resolveMaterial(ingredient);
+        return material != null ? new RecipeChoice.MaterialChoice(material) : null;
+    }
+
+    /**
+     * Resolves an ingredient string (vanilla material or custom item ID) to the
+     * material its stacks will have in-game.
+     */
+    private Material resolveMaterial(String ingredient) {
         if (ingredient == null)
             return null;
         try {
-            Material material = Material.valueOf(ingredient.toUpperCase());
-            return new RecipeChoice.MaterialChoice(material);
+            return Material.valueOf(ingredient.toUpperCase());
         } catch (IllegalArgumentException e) {
             if (itemDataManager.hasItem(ingredient)) {
                 ItemData data = itemDataManager.getItemData(ingredient);
-                if (data != null) {
+                if (data != null && data.getMaterial() != null) {
                     try {
-                        Material mat = Material.valueOf(data.getMaterial().toUpperCase());
-                        return new RecipeChoice.MaterialChoice(mat);
+                        return Material.valueOf(data.getMaterial().toUpperCase());
                     } catch (IllegalArgumentException ignored) {
                     }
                 }
@@ -319,6 +343,107 @@ public class RecipeListener implements Listener {
         return null;
     }
 
+    // ========== STATION INDEXES ==========
+
+    /**
+     * Marks the station indexes stale; they are rebuilt on the next lookup.
+     */
+    public void invalidateIndex() {
+        indexDirty = true;
+    }
+
+    private void ensureIndex() {
+        if (!indexDirty)
+            return;
+
+        furnaceIndex.clear();
+        anvilIndex.clear();
+        smithingIndex.clear();
+
+        for (ItemData itemData : itemDataManager.getAllItems().values()) {
+            for (RecipeData recipe : itemData.getRecipes()) {
+                if (recipe == null || recipe.getType() == null)
+                    continue;
+
+                String input;
+                StationIndex index;
+                if (isFurnaceType(recipe.getType())) {
+                    input = recipe.getInputItem();
+                    index = furnaceIndex;
+                } else if (recipe.getType() == RecipeData.RecipeType.ANVIL) {
+                    input = recipe.getLeftInput();
+                    index = anvilIndex;
+                } else if (recipe.getType() == RecipeData.RecipeType.SMITHING) {
+                    input = recipe.getBaseItem();
+                    index = smithingIndex;
+                } else {
+                    continue;
+                }
+
+                Material material = resolveMaterial(input);
+                if (material == null)
+                    continue;
+
+                String key = itemDataManager.hasItem(input) ? input : material.name();
+                index.add(key, material, new IndexedRecipe(itemData.getItemId(), recipe));
+            }
+        }
+
+        indexDirty = false;
+    }
+
+    private String getCustomId(ItemStack item) {
+        if (item == null || !item.hasItemMeta())
+            return null;
+        return item.getItemMeta().getPersistentDataContainer()
+                .get(plugin.getCuriosPaperAPI().getItemIdKey(), PersistentDataType.STRING);
+    }
+
+    private static class IndexedRecipe {
+        final String itemId;
+        final RecipeData recipeData;
+
+        IndexedRecipe(String itemId, RecipeData recipeData) {
+            this.itemId = itemId;
+            this.recipeData = recipeData;
+        }
+    }
+
+    /**
+     * Recipes of one station type keyed by their primary input, either the
+     * custom item ID or the upper-case material name.
+     */
+    private static class StationIndex {
+        final Set<Material> materials = EnumSet.noneOf(Material.class);
+        final Map<String, List<IndexedRecipe>> byInput = new HashMap<>();
+
+        void clear() {
+            materials.clear();
+            byInput.clear();
+        }
+
+        void add(String key, Material material, IndexedRecipe entry) {
+            materials.add(material);
+            byInput.computeIfAbsent(key, k -> new ArrayList<>()).add(entry);
+        }
+
+        boolean accepts(ItemStack item) {
+            return item != null && materials.contains(item.getType());
+        }
+
+        List<IndexedRecipe> lookup(String customId, Material material) {
+            List<IndexedRecipe> byId = customId != null ? byInput.get(customId) : null;
+            List<IndexedRecipe> byMaterial = byInput.get(material.name());
+            if (byId == null)
+                return byMaterial != null ? byMaterial : Collections.<IndexedRecipe>emptyList();
+            if (byMaterial == null)
+                return byId;
+            List<IndexedRecipe> merged = new ArrayList<>(byId);
+            merged.addAll(byMaterial);
+            return merged;
+        }
+    }
+
     private ItemStack createResultItem(ItemData itemData) {
         return plugin.getCuriosPaperAPI().createItemStack(itemData.getItemId());
     }
@@ -606,7 +731,13 @@ public class RecipeListener implements Listener {
 
     @EventHandler
     public void onSmithingClick(org.bukkit.event.inventory.InventoryClickEvent event) {
-        if (event.getInventory() == null)
+        // Smithing result slot is usually index 3 (0=template, 1=base, 2=addition) in
+        // 1.20+
+        // But in 1.16-1.19 (legacy smithing), result is slot 2 (0=base, 1=addition).
+        // Safest check: verify slot type is RESULT. Checked first since it is a cheap
+        // enum compare and filters out almost every click on the server.
+        if (event.getSlotType() != org.bukkit.event.inventory.InventoryType.SlotType.RESULT
+                || event.getInventory() == null)
             return;
 
         // Check for Smithing Table inventory type safely (since SMITHING enum missing
@@ -616,45 +747,43 @@ public class RecipeListener implements Listener {
             return;
         }
 
-        // Smithing result slot is usually index 3 (0=template, 1=base, 2=addition) in
-        // 1.20+
-        // But in 1.16-1.19 (legacy smithing), result is slot 2 (0=base, 1=addition).
-        // Safest check: verify slot type is RESULT
-        if (event.getSlotType() == org.bukkit.event.inventory.InventoryType.SlotType.RESULT) {
-            ItemStack result = event.getCurrentItem();
-            if (result == null || !result.hasItemMeta())
-                return;
-
-            // This logic is simplified because we can't easily access the matrix without
-            // reflection on the specific inventory view class which varies by version.
-            // However, we can handle the TRANSFER event here if the result is a custom
-            // item.
-
-            NamespacedKey itemIdKey = plugin.getCuriosPaperAPI().getItemIdKey();
-            PersistentDataContainer pdc = result.getItemMeta().getPersistentDataContainer();
-            if (pdc.has(itemIdKey, PersistentDataType.STRING)) {
-                // It's a custom item result.
-                // We should try to transfer data from the base item.
-                // Base item in 1.20+ is slot 1. In 1.16+ is slot 0.
-
-                int baseSlot = VersionUtil.supportsSmithingTemplate() ? 1 : 0;
-                ItemStack base = event.getInventory().getItem(baseSlot);
-
-                if (base != null && base.hasItemMeta()) {
-                    CuriosRecipeTransferEvent transferEvent = new CuriosRecipeTransferEvent(event.getInventory(),
-                            result, base);
-                    plugin.getServer().getPluginManager().callEvent(transferEvent);
+        // Base item in 1.20+ is slot 1. In 1.16+ is slot 0.
+        int baseSlot = VersionUtil.supportsSmithingTemplate() ? 1 : 0;
+        ItemStack base = event.getInventory().getItem(baseSlot);
+        ensureIndex();
+        if (!smithingIndex.accepts(base)) {
+            // No custom smithing recipe takes this base material
+            return;
+        }
 
-                    if (!transferEvent.isCancelled()) {
-                        // Update the item on cursor or in slot?
-                        // Click event: result is what they are clicking.
-                        // If we modify current item, it might work if cancellable?
-                        // Usually in click event result slot, we modify the result being picked up.
-                        // But event.setCurrentItem works on the slot.
-                        ItemStack resultItem = transferEvent.getResult();
-                        resultItem = ensureItemTags(resultItem);
-                        event.setCurrentItem(resultItem);
-                    }
+        ItemStack result = event.getCurrentItem();
+        if (result == null || !result.hasItemMeta())
+            return;
+
+        // This logic is simplified because we can't easily access the matrix without
+        // reflection on the specific inventory view class which varies by version.
+        // However, we can handle the TRANSFER event here if the result is a custom
+        // item.
+
+        NamespacedKey itemIdKey = plugin.getCuriosPaperAPI().getItemIdKey();
+        PersistentDataContainer pdc = result.getItemMeta().getPersistentDataContainer();
+        if (pdc.has(itemIdKey, PersistentDataType.STRING)) {
+            // It's a custom item result.
+            // We should try to transfer data from the base item.
+            if (base != null && base.hasItemMeta()) {
+                CuriosRecipeTransferEvent transferEvent = new CuriosRecipeTransferEvent(event.getInventory(),
+                        result, base);
+                plugin.getServer().getPluginManager().callEvent(transferEvent);
+
+                if (!transferEvent.isCancelled()) {
+                    // Update the item on cursor or in slot?
+                    // Click event: result is what they are clicking.
+                    // If we modify current item, it might work if cancellable?
+                    // Usually in click event result slot, we modify the result being picked up.
+                    // But event.setCurrentItem works on the slot.
+                    ItemStack resultItem = transferEvent.getResult();
+                    resultItem = ensureItemTags(resultItem);
+                    event.setCurrentItem(resultItem);
                 }
             }
         }
@@ -685,10 +814,14 @@ public class RecipeListener implements Listener {
                 ItemData itemData = itemDataManager.getItemData(resultId);
 
                 if (itemData != null) {
+                    // A source the index doesn't accept matches none of our furnace
+                    // recipes, so recipe matching is skipped and the result is invalid
+                    ensureIndex();
                     boolean isValid = false;
-                    for (RecipeData recipe : itemData.getRecipes()) {
-                        if (isFurnaceType(recipe.getType())) {
-                            if (matchesRequirement(recipe.getInputItem(), source)) {
+                    if (furnaceIndex.accepts(source)) {
+                        for (IndexedRecipe candidate : furnaceIndex.lookup(getCustomId(source), source.getType())) {
+                            if (candidate.itemId.equals(resultId)
+                                    && matchesRequirement(candidate.recipeData.getInputItem(), source)) {
                                 isValid = true;
                                 break;
                             }
@@ -732,29 +865,35 @@ public class RecipeListener implements Listener {
         if (left == null || right == null)
             return;
 
-        for (ItemData itemData : itemDataManager.getAllItems().values()) {
-            for (RecipeData recipe : itemData.getRecipes()) {
-                if (recipe.getType() == RecipeData.RecipeType.ANVIL) {
-                    if (matchesAnvil(recipe, left, right)) {
-                        ItemStack result = createResultItem(itemData);
-
-                        CuriosRecipeTransferEvent transferEvent = new CuriosRecipeTransferEvent(inv, result, left);
-                        plugin.getServer().getPluginManager().callEvent(transferEvent);
-
-                        if (!transferEvent.isCancelled()) {
-                            ItemStack resultItem = transferEvent.getResult();
-                            resultItem = ensureItemTags(resultItem);
-                            event.setResult(resultItem);
-                            plugin.getServer().getScheduler().runTask(plugin, () -> {
-                                if (event.getView() != null) {
-                                    event.getInventory().setRepairCost((int) recipe.getExperience());
-                                }
-                            });
-                        }
-                        return;
+        ensureIndex();
+        if (!anvilIndex.accepts(left))
+            return;
+
+        for (IndexedRecipe candidate : anvilIndex.lookup(getCustomId(left), left.getType())) {
+            RecipeData recipe = candidate.recipeData;
+            if (!matchesAnvil(recipe, left, right))
+                continue;
+
+            ItemData itemData = itemDataManager.getItemData(candidate.itemId);
+            if (itemData == null)
+                continue;
+
+            ItemStack result = createResultItem(itemData);
+
+            CuriosRecipeTransferEvent transferEvent = new CuriosRecipeTransferEvent(inv, result, left);
+            plugin.getServer().getPluginManager().callEvent(transferEvent);
+
+            if (!transferEvent.isCancelled()) {
+                ItemStack resultItem = transferEvent.getResult();
+                resultItem = ensureItemTags(resultItem);
+                event.setResult(resultItem);
+                plugin.getServer().getScheduler().runTask(plugin, () -> {
+                    if (event.getView() != null) {
+                        event.getInventory().setRepairCost((int) recipe.getExperience());
                     }
-                }
+                });
             }
+            return;
         }
     }
 
@@ -765,6 +904,7 @@ public class RecipeListener implements Listener {
     public boolean unregisterRecipe(String itemId) {
         ItemData data = itemDataManager.getItemData(itemId);
         if (data != null) {
+            invalidateIndex();
             String owningPlugin = data.getOwningPlugin();
             if (owningPlugin == null || owningPlugin.isEmpty()) {
                 owningPlugin = "curiospaper";
@@ -0,0 +1,135 @@
+package org.bg52.curiospaper.manager;
+
+import org.bg52.curiospaper.CuriosPaper;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.persistence.PersistentDataType;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Live reverse index of equipped custom items: which loaded players have an
+ * item id equipped and how many times. SlotManager keeps it up to date
+ * whenever accessories are loaded, changed or unloaded, so queries never scan
+ * players, slots or item data. Every count change is also passed on to the
+ * StatManager, and ItemDataManager calls refresh when item data changes.
+ */
+public class EquippedItemIndex {
+    private final CuriosPaper plugin;
+    private final StatManager statManager;
+    // Sets are kept once created, so views handed out stay live
+    private final Map<String, Set<UUID>> playersByItem = new HashMap<>();
+    private final Map<UUID, Map<String, Integer>> countsByPlayer = new HashMap<>();
+
+    EquippedItemIndex(CuriosPaper plugin, StatManager statManager) {
+        this.plugin = plugin;
+        this.statManager = statManager;
+    }
+
+    void add(UUID playerId, Collection<ItemStack> items) {
+        for (ItemStack item : items) {
+            adjust(playerId, getItemId(item), 1);
+        }
+    }
+
+    void remove(UUID playerId, Collection<ItemStack> items) {
+        for (ItemStack item : items) {
+            adjust(playerId, getItemId(item), -1);
+        }
+    }
+
+    void replace(UUID playerId, ItemStack oldItem, ItemStack newItem) {
+        adjust(playerId, getItemId(oldItem), -1);
+        adjust(playerId, getItemId(newItem), 1);
+    }
+
+    void removePlayer(UUID playerId) {
+        Map<String, Integer> counts = countsByPlayer.remove(playerId);
+        statManager.removePlayer(playerId);
+        if (counts == null) {
+            return;
+        }
+        for (String itemId : counts.keySet()) {
+            playersByItem.get(itemId).remove(playerId);
+        }
+    }
+
+    /**
+     * Recomputes the stats of the item for every player who has it equipped,
+     * after its ItemData was saved, reloaded or deleted.
+     */
+    void refresh(String itemId) {
+        Set<UUID> players = playersByItem.get(itemId);
+        if (players == null) {
+            return;
+        }
+        for (UUID playerId : players) {
+            statManager.update(playerId, itemId, countEquipped(playerId, itemId));
+        }
+    }
+
+    /**
+     * Recomputes the stats of every equipped item, after all item data was reloaded.
+     */
+    void refreshAll() {
+        for (String itemId : playersByItem.keySet()) {
+            refresh(itemId);
+        }
+    }
+
+    private void adjust(UUID playerId, String itemId, int delta) {
+        if (itemId == null) {
+            return;
+        }
+
+        Map<String, Integer> counts = countsByPlayer.computeIfAbsent(playerId, k -> new HashMap<>());
+        int previous = counts.getOrDefault(itemId, 0);
+        int count = previous + delta;
+        statManager.update(playerId, itemId, Math.max(0, count));
+        if (count > 0) {
+            counts.put(itemId, count);
+            playersByItem.computeIfAbsent(itemId, k -> new HashSet<>()).add(playerId);
+        } else {
+            counts.remove(itemId);
+            Set<UUID> players = playersByItem.get(itemId);
+            if (players != null) {
+                players.remove(playerId);
+            }
+        }
+    }
+
+    private String getItemId(ItemStack item) {
+        if (item == null || item.getType() == Material.AIR || !item.hasItemMeta())
+            return null;
+        return item.getItemMeta().getPersistentDataContainer()
+                .get(plugin.getCuriosPaperAPI().getItemIdKey(), PersistentDataType.STRING);
+    }
+
+    public boolean hasEquipped(UUID playerId, String itemId) {
+        return countEquipped(playerId, itemId) > 0;
+    }
+
+    /**
+     * @return how many accessory slots of the player hold the custom item
+     */
+    public int countEquipped(UUID playerId, String itemId) {
+        Map<String, Integer> counts = countsByPlayer.get(playerId);
+        return counts != null ? counts.getOrDefault(itemId, 0) : 0;
+    }
+
+    /**
+     * @return read-only live view of the loaded players with the custom item
+     *         equipped; main thread only, and not to be iterated while
+     *         accessories change
+     */
+    public Set<UUID> getPlayersWith(String itemId) {
+        Set<UUID> players = playersByItem.get(itemId);
+        return players != null ? Collections.unmodifiableSet(players) : Collections.emptySet();
+    }
+}
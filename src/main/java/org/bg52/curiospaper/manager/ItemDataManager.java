@@ -2,6 +2,7 @@ package org.bg52.curiospaper.manager;
 
 import org.bg52.curiospaper.CuriosPaper;
 import org.bg52.curiospaper.data.ItemData;
+import org.bg52.curiospaper.listener.AbilityListener;
 import org.bukkit.configuration.file.YamlConfiguration;
 
 import java.io.File;
@@ -162,6 +163,7 @@ public class ItemDataManager {
             config.save(file);
 
             plugin.getLogger().info("✓ Saved item: " + data.getItemId());
+            itemChanged(data.getItemId());
             return true;
         } catch (IOException e) {
             plugin.getLogger().severe("✗ Failed to save item " + data.getItemId() + ": " + e.getMessage());
@@ -189,6 +191,7 @@ public class ItemDataManager {
 
             if (data != null && data.isValid()) {
                 loadedItems.put(itemId, data);
+                itemChanged(itemId);
                 return data;
             }
         } catch (Exception e) {
@@ -225,6 +228,7 @@ public class ItemDataManager {
         if (file.exists()) {
             if (file.delete()) {
                 plugin.getLogger().info("✓ Unloaded item: " + itemId);
+                itemChanged(itemId);
                 return true;
             } else {
                 plugin.getLogger().warning("Failed to unload item file: " + itemId + ".yml");
@@ -234,6 +238,7 @@ public class ItemDataManager {
             }
         }
 
+        itemChanged(itemId);
         return true;
     }
 
@@ -296,5 +301,32 @@ public class ItemDataManager {
     public void reload() {
         plugin.getLogger().info("Reloading item data...");
         loadAllItems();
+        allItemsChanged();
+    }
+
+    /**
+     * Brings stats and set bonuses of players wearing the item up to date with its data.
+     */
+    private void itemChanged(String itemId) {
+        SlotManager slotManager = plugin.getSlotManager();
+        if (slotManager != null) {
+            slotManager.getEquippedItemIndex().refresh(itemId);
+        }
+        reloadSetBonuses();
+    }
+
+    private void allItemsChanged() {
+        SlotManager slotManager = plugin.getSlotManager();
+        if (slotManager != null) {
+            slotManager.getEquippedItemIndex().refreshAll();
+        }
+        reloadSetBonuses();
+    }
+
+    private void reloadSetBonuses() {
+        AbilityListener abilityListener = plugin.getAbilityListener();
+        if (abilityListener != null) {
+            abilityListener.reloadSetBonuses();
+        }
     }
 }
@@ -14,11 +14,15 @@ import java.util.*;
 public class SlotManager {
     private final CuriosPaper plugin;
     private final Map<UUID, Map<String, List<ItemStack>>> playerAccessories;
+    private final StatManager statManager;
+    private final EquippedItemIndex equippedIndex;
     private final File dataFolder;
 
     public SlotManager(CuriosPaper plugin) {
         this.plugin = plugin;
         this.playerAccessories = new HashMap<>();
+        this.statManager = new StatManager(plugin);
+        this.equippedIndex = new EquippedItemIndex(plugin, statManager);
         this.dataFolder = new File(plugin.getDataFolder(), "playerdata");
         if (!dataFolder.exists()) {
             if (dataFolder.mkdirs()) {
@@ -32,6 +36,7 @@ public class SlotManager {
     public void loadPlayerData(Player player) {
         UUID playerId = player.getUniqueId();
         File playerFile = new File(dataFolder, playerId.toString() + ".yml");
+        equippedIndex.removePlayer(playerId);
 
         if (!playerFile.exists()) {
             playerAccessories.put(playerId, new HashMap<>());
@@ -53,6 +58,9 @@ public class SlotManager {
             }
 
             playerAccessories.put(playerId, accessories);
+            for (List<ItemStack> items : accessories.values()) {
+                equippedIndex.add(playerId, items);
+            }
             plugin.getLogger().info("Loaded accessory data for player: " + player.getName());
         } catch (Exception e) {
             plugin.getLogger().severe("Failed to load player data for " + player.getName() + ": " + e.getMessage());
@@ -191,6 +199,7 @@ public class SlotManager {
         if (config != null && items.size() > config.getAmount()) {
             plugin.getLogger().warning("Player " + playerId + " has more items than configured for slot type '" +
                     slotType + "'. Truncating.");
+            equippedIndex.remove(playerId, items.subList(config.getAmount(), items.size()));
             items = new ArrayList<>(items.subList(0, config.getAmount()));
             accessories.put(slotType.toLowerCase(), items);
         }
@@ -198,6 +207,24 @@ public class SlotManager {
         return new ArrayList<>(items);
     }
 
+    /**
+     * Gets the items at indices [from, from + count) of a slot type. The list is
+     * shorter if the player has fewer items stored.
+     */
+    public List<ItemStack> getAccessories(UUID playerId, String slotType, int from, int count) {
+        Map<String, List<ItemStack>> accessories = playerAccessories.get(playerId);
+        if (accessories == null) {
+            return new ArrayList<>();
+        }
+
+        List<ItemStack> items = accessories.get(slotType.toLowerCase());
+        if (items == null || from >= items.size()) {
+            return new ArrayList<>();
+        }
+
+        return new ArrayList<>(items.subList(from, Math.min(items.size(), from + count)));
+    }
+
     public void setAccessories(UUID playerId, String slotType, List<ItemStack> items) {
         // Validate slot type
         if (!plugin.getConfigManager().hasSlotType(slotType)) {
@@ -214,7 +241,27 @@ public class SlotManager {
         }
 
         Map<String, List<ItemStack>> accessories = playerAccessories.computeIfAbsent(playerId, k -> new HashMap<>());
-        accessories.put(slotType.toLowerCase(), new ArrayList<>(items));
+        replaceSlotItems(playerId, accessories, slotType.toLowerCase(), items);
+    }
+
+    /**
+     * Stores several slot types in one step. The lists are taken as they are, so
+     * callers must have validated them against the slot configuration already.
+     */
+    public void putAccessories(UUID playerId, Map<String, List<ItemStack>> itemsBySlotType) {
+        Map<String, List<ItemStack>> accessories = playerAccessories.computeIfAbsent(playerId, k -> new HashMap<>());
+        for (Map.Entry<String, List<ItemStack>> entry : itemsBySlotType.entrySet()) {
+            replaceSlotItems(playerId, accessories, entry.getKey().toLowerCase(), entry.getValue());
+        }
+    }
+
+    private void replaceSlotItems(UUID playerId, Map<String, List<ItemStack>> accessories, String slotType,
+            List<ItemStack> items) {
+        List<ItemStack> previous = accessories.put(slotType, new ArrayList<>(items));
+        if (previous != null) {
+            equippedIndex.remove(playerId, previous);
+        }
+        equippedIndex.add(playerId, items);
     }
 
     public void setAccessoryItem(UUID playerId, String slotType, int index, ItemStack item) {
@@ -238,7 +285,7 @@ public class SlotManager {
             items.add(null);
         }
 
-        items.set(index, item);
+        equippedIndex.replace(playerId, items.set(index, item), item);
     }
 
     public ItemStack getAccessoryItem(UUID playerId, String slotType, int index) {
@@ -251,9 +298,24 @@ public class SlotManager {
 
     public void unloadPlayerData(UUID playerId) {
         playerAccessories.remove(playerId);
+        equippedIndex.removePlayer(playerId);
         plugin.getLogger().fine("Unloaded data for player: " + playerId);
     }
 
+    /**
+     * Gets the reverse index of which loaded players have each custom item equipped
+     */
+    public EquippedItemIndex getEquippedItemIndex() {
+        return equippedIndex;
+    }
+
+    /**
+     * Gets the aggregated accessory stats of loaded players
+     */
+    public StatManager getStatManager() {
+        return statManager;
+    }
+
     public boolean hasPlayerData(UUID playerId) {
         return playerAccessories.containsKey(playerId);
     }
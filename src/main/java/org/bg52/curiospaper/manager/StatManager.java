@@ -0,0 +1,165 @@
+package org.bg52.curiospaper.manager;
+
+import org.bg52.curiospaper.CuriosPaper;
+import org.bg52.curiospaper.data.AbilityData;
+import org.bg52.curiospaper.data.ItemData;
+import org.bg52.curiospaper.listener.AbilityListener;
+import org.bukkit.attribute.Attribute;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Aggregated accessory stats per loaded player, kept as a primitive vector.
+ *
+ * Each stat (a vanilla attribute such as "generic_armor", or a custom stat
+ * declared on ItemData) gets a fixed index for the server's lifetime. The
+ * EquippedItemIndex feeds every change in how many of an item a player has
+ * equipped, so reads are a single array access and never scan items.
+ * Attribute stats sum the PLAYER_MODIFIER abilities with EQUIP or
+ * WHILE_EQUIPPED triggers.
+ *
+ * What each item added is kept per player and subtracted as-is, so editing,
+ * reloading or deleting an ItemData never leaves stale values behind; the
+ * EquippedItemIndex refreshes equipped items when their data changes.
+ */
+public class StatManager {
+    private static final double[] EMPTY = new double[0];
+
+    private final CuriosPaper plugin;
+    private final Map<String, Integer> statIndices = new HashMap<>();
+    private final List<String> statNames = new ArrayList<>();
+    private final Map<UUID, double[]> vectors = new HashMap<>();
+    // Player -> item id -> what that item currently adds to the player's vector
+    private final Map<UUID, Map<String, double[]>> contributions = new HashMap<>();
+
+    StatManager(CuriosPaper plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Sets how many of an item a player has equipped, replacing what the item
+     * added before with the stats of its current ItemData times the count.
+     */
+    void update(UUID playerId, String itemId, int count) {
+        Map<String, double[]> items = contributions.get(playerId);
+        double[] previous = items != null ? items.get(itemId) : null;
+        double[] current = count > 0 ? contributionOf(itemId, count) : null;
+        if (previous == null && current == null) {
+            return;
+        }
+
+        double[] vector = vectors.get(playerId);
+        if (vector == null || vector.length < statNames.size()) {
+            vector = vector == null ? new double[statNames.size()] : Arrays.copyOf(vector, statNames.size());
+            vectors.put(playerId, vector);
+        }
+        if (previous != null) {
+            for (int i = 0; i < previous.length; i++) {
+                vector[i] -= previous[i];
+            }
+        }
+        if (current != null) {
+            for (int i = 0; i < current.length; i++) {
+                vector[i] += current[i];
+            }
+            contributions.computeIfAbsent(playerId, k -> new HashMap<>()).put(itemId, current);
+        } else {
+            items.remove(itemId);
+        }
+    }
+
+    /**
+     * @return the stats count copies of the item add, or null if it adds none
+     */
+    private double[] contributionOf(String itemId, int count) {
+        ItemDataManager itemDataManager = plugin.getItemDataManager();
+        ItemData data = itemDataManager != null ? itemDataManager.getItemData(itemId) : null;
+        if (data == null) {
+            return null;
+        }
+
+        double[] contribution = null;
+        for (Map.Entry<String, Double> stat : data.getStats().entrySet()) {
+            contribution = add(contribution, registerStat(stat.getKey()), count * stat.getValue());
+        }
+
+        for (AbilityData ability : data.getAbilities()) {
+            if (ability.getEffectType() != AbilityData.EffectType.PLAYER_MODIFIER
+                    || ability.getTrigger() == AbilityData.TriggerType.DE_EQUIP) {
+                continue;
+            }
+            Attribute attribute = AbilityListener.getAttributeFromName(ability.getEffectName());
+            if (attribute != null) {
+                // Same scaling as the modifier AbilityListener applies
+                contribution = add(contribution, registerStat(attribute.name()),
+                        count * (ability.getAmplifier() / 100.0));
+            }
+        }
+        return contribution;
+    }
+
+    private double[] add(double[] vector, int index, double value) {
+        if (vector == null || vector.length <= index) {
+            vector = vector == null ? new double[statNames.size()] : Arrays.copyOf(vector, statNames.size());
+        }
+        vector[index] += value;
+        return vector;
+    }
+
+    void removePlayer(UUID playerId) {
+        vectors.remove(playerId);
+        contributions.remove(playerId);
+    }
+
+    private int registerStat(String stat) {
+        String key = stat.toLowerCase();
+        Integer index = statIndices.get(key);
+        if (index == null) {
+            index = statNames.size();
+            statIndices.put(key, index);
+            statNames.add(key);
+        }
+        return index;
+    }
+
+    /**
+     * @return the vector index of a stat, or -1 if no equipped item has provided it yet
+     */
+    public int getStatIndex(String stat) {
+        if (stat == null) {
+            return -1;
+        }
+        Integer index = statIndices.get(stat.toLowerCase());
+        return index != null ? index : -1;
+    }
+
+    /**
+     * @return stat names in index order
+     */
+    public List<String> getStatNames() {
+        return Collections.unmodifiableList(statNames);
+    }
+
+    public double getStat(UUID playerId, int index) {
+        double[] vector = vectors.get(playerId);
+        return vector != null && index >= 0 && index < vector.length ? vector[index] : 0.0;
+    }
+
+    public double getStat(UUID playerId, String stat) {
+        return getStat(playerId, getStatIndex(stat));
+    }
+
+    /**
+     * @return a copy of the player's vector; may be shorter than getStatNames() if later stats are 0
+     */
+    public double[] getStats(UUID playerId) {
+        double[] vector = vectors.get(playerId);
+        return vector != null ? vector.clone() : EMPTY;
+    }
+}
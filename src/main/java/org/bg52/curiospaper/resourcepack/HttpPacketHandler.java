@@ -1,24 +1,62 @@
 package org.bg52.curiospaper.resourcepack;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.DefaultFileRegion;
 import io.netty.handler.codec.http.*;
-import io.netty.handler.stream.ChunkedWriteHandler;
+import io.netty.util.IllegalReferenceCountException;
 import org.bg52.curiospaper.CuriosPaper;
 
 import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class HttpPacketHandler extends ChannelInboundHandlerAdapter {
 
+    /**
+     * Pack bytes held in a direct buffer, shared by every connection. The
+     * reference held here is dropped when a newer pack replaces it; each
+     * response takes its own reference (see sharedPack) and writes a slice that
+     * gives it back once written, so no per-request copy is made and the buffer
+     * is only freed once the last in-flight response completes.
+     */
+    private static final AtomicReference<SharedPack> SHARED_PACK = new AtomicReference<>();
+    private static final AtomicBoolean LOADING = new AtomicBoolean();
+
     private final CuriosPaper plugin;
-    private final File packFile;
 
-    public HttpPacketHandler(CuriosPaper plugin, File packFile) {
+    private static class SharedPack {
+        final String hash;
+        final ByteBuf buffer;
+        final long lastModified;
+
+        SharedPack(String hash, ByteBuf buffer, long lastModified) {
+            this.hash = hash;
+            this.buffer = buffer;
+            this.lastModified = lastModified;
+        }
+    }
+
+    public HttpPacketHandler(CuriosPaper plugin) {
         this.plugin = plugin;
-        this.packFile = packFile;
+    }
+
+    /**
+     * @deprecated packs are stored under their hash, so the file is resolved
+     *             per request and this one is ignored
+     */
+    @Deprecated
+    public HttpPacketHandler(CuriosPaper plugin, File packFile) {
+        this(plugin);
     }
 
     @Override
@@ -37,8 +75,7 @@ public class HttpPacketHandler extends ChannelInboundHandlerAdapter {
 
                 // Add HTTP codecs
                 ctx.pipeline().addFirst("http-codec", new HttpServerCodec());
-                ctx.pipeline().addAfter("http-codec", "http-chunked", new ChunkedWriteHandler());
-                ctx.pipeline().addAfter("http-chunked", "http-handler", new SimpleHttpHandler(plugin, packFile));
+                ctx.pipeline().addAfter("http-codec", "http-handler", new SimpleHttpHandler(plugin));
 
                 // Fire the message again so the new handlers pick it up
                 // We need to retain the buffer because we are passing it on
@@ -53,47 +90,230 @@ public class HttpPacketHandler extends ChannelInboundHandlerAdapter {
         ctx.fireChannelRead(msg);
     }
 
-    private static class SimpleHttpHandler extends io.netty.channel.SimpleChannelInboundHandler<HttpRequest> {
+    /**
+     * Returns the shared in-memory pack if it matches the given hash, with its
+     * buffer retained for the caller, who must release it once the response
+     * is written or abandoned. Otherwise starts loading it off the event loop
+     * and returns null, so the caller falls back to a zero-copy file region for
+     * this request.
+     */
+    private static SharedPack sharedPack(CuriosPaper plugin, String hash) {
+        while (true) {
+            SharedPack pack = SHARED_PACK.get();
+            if (pack == null || !pack.hash.equals(hash)) {
+                break;
+            }
+            try {
+                pack.buffer.retain();
+            } catch (IllegalReferenceCountException e) {
+                continue; // already replaced and freed
+            }
+            // Still current means the replacing loader has not released it yet
+            if (SHARED_PACK.get() == pack) {
+                return pack;
+            }
+            pack.buffer.release();
+        }
+
+        if (LOADING.compareAndSet(false, true)) {
+            plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+                try {
+                    // Named by its hash, so the bytes read always match it
+                    File packFile = plugin.getResourcePackManager().getPackFile(hash);
+                    long lastModified = packFile.lastModified();
+                    byte[] data = Files.readAllBytes(packFile.toPath());
+                    if (!hash.equals(plugin.getResourcePackManager().getPackHash())) {
+                        return; // rebuilt while we were reading, next request retries
+                    }
+
+                    ByteBuf buffer = Unpooled.directBuffer(data.length, data.length).writeBytes(data);
+                    SharedPack previous = SHARED_PACK.getAndSet(new SharedPack(hash, buffer, lastModified));
+                    if (previous != null) {
+                        previous.buffer.release();
+                    }
+                } catch (IOException e) {
+                    plugin.getLogger().warning("Failed to cache resource pack for HTTP delivery: " + e.getMessage());
+                } finally {
+                    LOADING.set(false);
+                }
+            });
+        }
+        return null;
+    }
+
+    /**
+     * Frees the shared pack buffer. Called when the resource pack manager shuts
+     * down.
+     */
+    public static void releaseSharedPack() {
+        SharedPack previous = SHARED_PACK.getAndSet(null);
+        if (previous != null) {
+            previous.buffer.release();
+        }
+    }
+
+    private static class SimpleHttpHandler extends io.netty.channel.SimpleChannelInboundHandler<HttpObject> {
         private final CuriosPaper plugin;
-        private final File packFile;
 
-        public SimpleHttpHandler(CuriosPaper plugin, File packFile) {
+        public SimpleHttpHandler(CuriosPaper plugin) {
             this.plugin = plugin;
-            this.packFile = packFile;
         }
 
         @Override
-        protected void channelRead0(ChannelHandlerContext ctx, HttpRequest request) throws Exception {
-            if (request.uri().equals("/pack.zip") && request.method() == HttpMethod.GET) {
-                if (!packFile.exists()) {
-                    sendError(ctx, HttpResponseStatus.NOT_FOUND);
+        protected void channelRead0(ChannelHandlerContext ctx, HttpObject msg) throws Exception {
+            // Request bodies (if any) are ignored; only the head matters for a GET
+            if (!(msg instanceof HttpRequest)) {
+                return;
+            }
+            HttpRequest request = (HttpRequest) msg;
+            boolean keepAlive = HttpUtil.isKeepAlive(request);
+
+            String hash = plugin.getResourcePackManager().getPackHash();
+            String path = new QueryStringDecoder(request.uri()).path();
+            // Resolved from the hash read above, so the bytes served always match its ETag
+            File file = plugin.getResourcePackManager().getPackFile(hash);
+
+            // Versioned paths may name a pack layer instead of the merged pack
+            String requested = PackHttp.hashFromPath(path);
+            PackLayer layer = requested != null && !requested.equals(hash)
+                    ? plugin.getResourcePackManager().getLayerByHash(requested)
+                    : null;
+            if (layer != null) {
+                hash = layer.getHash();
+                file = layer.getFile();
+            }
+
+            if (request.method() != HttpMethod.GET || (layer == null && !PackHttp.isPackPath(path, hash))) {
+                sendError(ctx, HttpResponseStatus.NOT_FOUND, keepAlive);
+                return;
+            }
+
+            // Only the merged pack is kept in memory; layers are small and go out as file regions
+            SharedPack shared = hash != null && layer == null ? sharedPack(plugin, hash) : null;
+            RandomAccessFile raf = null;
+            long fileLength;
+            long lastModified;
+            if (shared != null) {
+                fileLength = shared.buffer.readableBytes();
+                lastModified = shared.lastModified;
+            } else {
+                if (file == null) {
+                    sendError(ctx, HttpResponseStatus.NOT_FOUND, keepAlive);
                     return;
                 }
+                // Once open, the file stays readable even if a later build retires it
+                try {
+                    raf = new RandomAccessFile(file, "r");
+                } catch (FileNotFoundException e) {
+                    sendError(ctx, HttpResponseStatus.NOT_FOUND, keepAlive);
+                    return;
+                }
+                fileLength = raf.length();
+                lastModified = file.lastModified();
+            }
 
-                RandomAccessFile raf = new RandomAccessFile(packFile, "r");
-                long fileLength = raf.length();
+            String etag = hash != null ? PackHttp.etag(hash) : null;
+            if (etag != null && PackHttp.notModified(request.headers().get(HttpHeaderNames.IF_NONE_MATCH), etag)) {
+                release(shared, raf);
+                FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1,
+                        HttpResponseStatus.NOT_MODIFIED);
+                setCacheHeaders(response, path, etag, lastModified);
+                HttpUtil.setContentLength(response, 0);
+                HttpUtil.setKeepAlive(response, keepAlive);
+                finish(ctx.writeAndFlush(response), keepAlive);
+                return;
+            }
 
-                HttpResponse response = new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
-                HttpUtil.setContentLength(response, fileLength);
-                response.headers().set(HttpHeaderNames.CONTENT_TYPE, "application/zip");
-                response.headers().set(HttpHeaderNames.CONNECTION, HttpHeaderValues.CLOSE);
+            long[] range = PackHttp.parseRange(request.headers().get(HttpHeaderNames.RANGE), fileLength);
+            String ifRange = request.headers().get(HttpHeaderNames.IF_RANGE);
+            if (range != null && ifRange != null && !ifRange.equals(etag)) {
+                range = null; // pack changed since the partial download started
+            }
 
-                ctx.write(response);
-                ctx.write(new io.netty.handler.stream.ChunkedFile(raf, 0, fileLength, 8192),
-                        ctx.newProgressivePromise());
-                ctx.writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT)
-                        .addListener(io.netty.channel.ChannelFutureListener.CLOSE);
+            if (range != null && range[0] < 0) {
+                release(shared, raf);
+                FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1,
+                        HttpResponseStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.headers().set(HttpHeaderNames.CONTENT_RANGE, "bytes */" + fileLength);
+                HttpUtil.setContentLength(response, 0);
+                HttpUtil.setKeepAlive(response, keepAlive);
+                finish(ctx.writeAndFlush(response), keepAlive);
+                return;
+            }
+
+            long offset = 0;
+            long length = fileLength;
+            HttpResponseStatus status = HttpResponseStatus.OK;
+            if (range != null) {
+                status = HttpResponseStatus.PARTIAL_CONTENT;
+                offset = range[0];
+                length = range[1] - range[0] + 1;
+            }
+
+            HttpResponse response = new DefaultHttpResponse(HttpVersion.HTTP_1_1, status);
+            HttpUtil.setContentLength(response, length);
+            HttpUtil.setKeepAlive(response, keepAlive);
+            response.headers().set(HttpHeaderNames.CONTENT_TYPE, "application/zip");
+            setCacheHeaders(response, path, etag, lastModified);
+            if (range != null) {
+                response.headers().set(HttpHeaderNames.CONTENT_RANGE,
+                        "bytes " + range[0] + "-" + range[1] + "/" + fileLength);
+            }
+
+            ctx.write(response);
+            if (shared != null) {
+                // Slice of the shared direct buffer: no copy, no file I/O on the event loop.
+                // It carries the reference taken in sharedPack, released once written
+                ctx.write(new DefaultHttpContent(shared.buffer.slice((int) offset, (int) length)));
             } else {
-                sendError(ctx, HttpResponseStatus.NOT_FOUND);
+                // Kernel-level transfer (sendfile); the transport paces it by socket writability
+                ctx.write(new DefaultFileRegion(raf.getChannel(), offset, length));
             }
+            finish(ctx.writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT), keepAlive);
         }
 
-        private void sendError(ChannelHandlerContext ctx, HttpResponseStatus status) {
+        /**
+         * Closes the connection after the response unless it is kept alive, in
+         * which case the next request is read only once this one is written.
+         */
+        private void finish(ChannelFuture future, boolean keepAlive) {
+            future.addListener(keepAlive ? ChannelFutureListener.CLOSE_ON_FAILURE : ChannelFutureListener.CLOSE);
+        }
+
+        private void setCacheHeaders(HttpResponse response, String path, String etag, long lastModified) {
+            response.headers().set(HttpHeaderNames.ACCEPT_RANGES, HttpHeaderValues.BYTES);
+            response.headers().set(HttpHeaderNames.LAST_MODIFIED, PackHttp.httpDate(lastModified));
+            response.headers().set(HttpHeaderNames.CACHE_CONTROL,
+                    PackHttp.isVersionedPath(path) ? PackHttp.CACHE_IMMUTABLE : PackHttp.CACHE_REVALIDATE);
+            if (etag != null) {
+                response.headers().set(HttpHeaderNames.ETAG, etag);
+            }
+        }
+
+        private void sendError(ChannelHandlerContext ctx, HttpResponseStatus status, boolean keepAlive) {
             FullHttpResponse response = new DefaultFullHttpResponse(
                     HttpVersion.HTTP_1_1, status,
-                    io.netty.buffer.Unpooled.copiedBuffer("Failure: " + status + "\r\n", StandardCharsets.UTF_8));
+                    Unpooled.copiedBuffer("Failure: " + status + "\r\n", StandardCharsets.UTF_8));
             response.headers().set(HttpHeaderNames.CONTENT_TYPE, "text/plain; charset=UTF-8");
-            ctx.writeAndFlush(response).addListener(io.netty.channel.ChannelFutureListener.CLOSE);
+            HttpUtil.setContentLength(response, response.content().readableBytes());
+            HttpUtil.setKeepAlive(response, keepAlive);
+            finish(ctx.writeAndFlush(response), keepAlive);
+        }
+
+        /**
+         * Gives back what a response that is not sent took: the shared buffer
+         * reference or the open file.
+         */
+        private static void release(SharedPack shared, RandomAccessFile raf) {
+            if (shared != null) {
+                shared.buffer.release();
+            }
+            if (raf != null) {
+                try {
+                    raf.close();
+                } catch (IOException ignored) {
+                }
+            }
         }
 
         @Override
@@ -0,0 +1,100 @@
+package org.bg52.curiospaper.resourcepack;
+
+import java.util.Objects;
+
+/**
+ * One conflict found while registering resource folders or assembling the
+ * pack: two plugins claiming the same file, or a namespace rule violation.
+ */
+public class PackConflict {
+    public enum Type {
+        /** Two plugins ship the same non-mergeable file; the first one is kept */
+        FILE,
+        /** A plugin used a namespace reserved for CuriosPaper */
+        RESERVED_NAMESPACE,
+        /** A plugin tried to override minecraft assets without permission */
+        MINECRAFT_NAMESPACE_BLOCKED,
+        /** A plugin used a namespace already owned by another plugin and was rejected */
+        NAMESPACE_OWNER,
+        /** Same as NAMESPACE_OWNER, but allowed by config */
+        NAMESPACE_SHARED
+    }
+
+    private final Type type;
+    private final String namespace;
+    private final String path;
+    private final String owner;
+    private final String conflicting;
+
+    PackConflict(Type type, String namespace, String path, String owner, String conflicting) {
+        this.type = type;
+        this.namespace = namespace;
+        this.path = path;
+        this.owner = owner;
+        this.conflicting = conflicting;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return the namespace involved, or null for files outside assets/
+     */
+    public String getNamespace() {
+        return namespace;
+    }
+
+    /**
+     * @return the contested pack path for FILE conflicts, otherwise null
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * @return the plugin that keeps the file or namespace, or null if none
+     */
+    public String getOwner() {
+        return owner;
+    }
+
+    public String getConflicting() {
+        return conflicting;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof PackConflict))
+            return false;
+        PackConflict other = (PackConflict) o;
+        return type == other.type && Objects.equals(namespace, other.namespace) && Objects.equals(path, other.path)
+                && Objects.equals(owner, other.owner) && Objects.equals(conflicting, other.conflicting);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, namespace, path, owner, conflicting);
+    }
+
+    @Override
+    public String toString() {
+        switch (type) {
+            case FILE:
+                return "CONFLICT: " + path + " | Existing owner: " + owner + " | Conflicting plugin: " + conflicting;
+            case RESERVED_NAMESPACE:
+                return "RESERVED NAMESPACE: plugin=" + conflicting + " namespace=" + namespace;
+            case MINECRAFT_NAMESPACE_BLOCKED:
+                return "MINECRAFT NAMESPACE BLOCKED: plugin=" + conflicting;
+            case NAMESPACE_OWNER:
+                return "NAMESPACE OWNER CONFLICT: namespace=" + namespace + " owner=" + owner
+                        + " conflicting=" + conflicting;
+            case NAMESPACE_SHARED:
+            default:
+                return "NAMESPACE CONFLICT ALLOWED: namespace=" + namespace + " owner=" + owner
+                        + " conflicting=" + conflicting;
+        }
+    }
+}
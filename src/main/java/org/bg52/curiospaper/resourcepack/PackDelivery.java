@@ -0,0 +1,143 @@
+package org.bg52.curiospaper.resourcepack;
+
+import org.bg52.curiospaper.CuriosPaper;
+import org.bg52.curiospaper.util.VersionUtil;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Pushes the resource pack to players at a bounded rate.
+ *
+ * Joins are queued and drained on the main thread at
+ * resource-pack.delivery-rate players per second, so a join storm after a
+ * restart doesn't start hundreds of downloads in the same tick. Players stay
+ * queued until a pack hash is known, which also covers joins that happen
+ * before the first build finishes.
+ */
+public class PackDelivery {
+    /** Stable pack id, so re-sending replaces our pack instead of stacking it (1.20.3+). */
+    public static final UUID PACK_ID = UUID.nameUUIDFromBytes("curiospaper:resource-pack".getBytes(StandardCharsets.UTF_8));
+
+    private final CuriosPaper plugin;
+    private final ResourcePackManager manager;
+    private final Set<UUID> queue = new LinkedHashSet<>();
+    private BukkitTask task;
+    private double credits = 0;
+
+    public PackDelivery(CuriosPaper plugin, ResourcePackManager manager) {
+        this.plugin = plugin;
+        this.manager = manager;
+    }
+
+    public void start() {
+        if (task == null) {
+            task = plugin.getServer().getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+        }
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        queue.clear();
+    }
+
+    /**
+     * Queues a player for delivery. Queuing an already queued player is a no-op.
+     */
+    public void enqueue(Player player) {
+        queue.add(player.getUniqueId());
+    }
+
+    public void enqueueAll(Collection<? extends Player> players) {
+        for (Player player : players) {
+            queue.add(player.getUniqueId());
+        }
+    }
+
+    public void remove(UUID playerId) {
+        queue.remove(playerId);
+    }
+
+    public int getQueued() {
+        return queue.size();
+    }
+
+    /**
+     * Sends the current pack right away, bypassing the queue.
+     *
+     * @return false if no pack has been built yet or sending failed
+     */
+    public boolean sendNow(Player player) {
+        String hash = manager.getPackHash();
+        byte[] hashBytes = PackManifest.fromHex(hash);
+        if (hashBytes == null) {
+            return false;
+        }
+
+        String prompt = plugin.getConfig().getString("resource-pack.prompt", "");
+        if (prompt != null && prompt.isEmpty())
+            prompt = null;
+        boolean required = plugin.getConfig().getBoolean("resource-pack.required", false);
+        try {
+            List<PackLayer> layers = manager.getLayers();
+            if (!layers.isEmpty() && VersionUtil.supportsMultipleResourcePacks()) {
+                // Layered: the client only downloads layers whose hash it hasn't cached
+                for (UUID retired : manager.getRetiredPackIds()) {
+                    VersionUtil.removeResourcePack(player, retired);
+                }
+                for (PackLayer layer : layers) {
+                    VersionUtil.addResourcePack(player, layer.getUuid(), manager.getLayerUrl(layer),
+                            PackManifest.fromHex(layer.getHash()), prompt, required);
+                }
+                return true;
+            }
+
+            VersionUtil.sendResourcePack(player, PACK_ID, manager.getPackUrl(), hashBytes, prompt, required);
+            return true;
+        } catch (Exception e) {
+            plugin.getLogger().warning("Failed to send resource pack to " + player.getName() + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void tick() {
+        if (queue.isEmpty()) {
+            credits = 0;
+            return;
+        }
+        if (manager.getPackHash() == null) {
+            return; // nothing to send yet, keep everyone queued
+        }
+
+        double rate = plugin.getConfig().getDouble("resource-pack.delivery-rate", 10.0);
+        if (rate <= 0) {
+            credits = queue.size(); // unthrottled
+        } else {
+            // Allow at most one second of burst after an idle period
+            credits = Math.min(credits + rate / 20.0, Math.max(1.0, rate));
+        }
+
+        Iterator<UUID> it = queue.iterator();
+        while (credits >= 1.0 && it.hasNext()) {
+            UUID playerId = it.next();
+            it.remove();
+
+            Player player = plugin.getServer().getPlayer(playerId);
+            if (player == null || !player.isOnline()) {
+                continue; // left before their turn, costs nothing
+            }
+            sendNow(player);
+            credits -= 1.0;
+        }
+    }
+}
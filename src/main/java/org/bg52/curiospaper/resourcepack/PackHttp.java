@@ -0,0 +1,135 @@
+package org.bg52.curiospaper.resourcepack;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * HTTP caching helpers shared by the standalone pack server and the game-port
+ * handler: hash-versioned paths, ETags and byte ranges.
+ */
+final class PackHttp {
+    /** Legacy, unversioned path. Always serves the current pack. */
+    static final String LEGACY_PATH = "/pack.zip";
+    /** Prefix of immutable, hash-versioned pack paths: /pack/&lt;sha1&gt;.zip */
+    static final String VERSIONED_PREFIX = "/pack/";
+
+    static final String CACHE_IMMUTABLE = "public, max-age=31536000, immutable";
+    static final String CACHE_REVALIDATE = "no-cache";
+
+    private PackHttp() {
+    }
+
+    static String versionedPath(String hash) {
+        return VERSIONED_PREFIX + hash + ".zip";
+    }
+
+    /**
+     * Checks whether a request path names the pack with the given hash.
+     *
+     * @return true for the legacy path or the matching versioned path
+     */
+    static boolean isPackPath(String path, String hash) {
+        if (path == null)
+            return false;
+        int query = path.indexOf('?');
+        if (query != -1)
+            path = path.substring(0, query);
+
+        if (LEGACY_PATH.equals(path))
+            return true;
+        return hash != null && versionedPath(hash).equals(path);
+    }
+
+    /**
+     * @return the hash named by a /pack/&lt;sha1&gt;.zip path, or null
+     */
+    static String hashFromPath(String path) {
+        if (path == null || !path.startsWith(VERSIONED_PREFIX) || !path.endsWith(".zip"))
+            return null;
+        String hash = path.substring(VERSIONED_PREFIX.length(), path.length() - 4);
+        return hash.length() == 40 && PackManifest.fromHex(hash) != null ? hash : null;
+    }
+
+    static boolean isVersionedPath(String path) {
+        return path != null && path.startsWith(VERSIONED_PREFIX);
+    }
+
+    static String etag(String hash) {
+        return "\"" + hash + "\"";
+    }
+
+    /**
+     * Evaluates an If-None-Match header against our ETag.
+     */
+    static boolean notModified(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null)
+            return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/"))
+                tag = tag.substring(2);
+            if (tag.equals("*") || tag.equals(etag))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Parses a single-range "bytes=" header.
+     *
+     * @return {start, endInclusive}; null to serve the full body (no header,
+     *         multi-range, a non-bytes unit or an invalid range such as
+     *         bytes=5-2); {-1, -1} if unsatisfiable
+     */
+    static long[] parseRange(String header, long length) {
+        if (header == null || !header.startsWith("bytes="))
+            return null;
+
+        String spec = header.substring(6).trim();
+        if (spec.contains(","))
+            return null; // multipart ranges are not worth supporting for a single zip
+
+        int dash = spec.indexOf('-');
+        if (dash == -1)
+            return null;
+
+        try {
+            long start;
+            long end;
+            if (dash == 0) {
+                // Suffix range: last N bytes
+                long suffix = Long.parseLong(spec.substring(1));
+                if (suffix <= 0)
+                    return new long[] { -1, -1 };
+                start = Math.max(0, length - suffix);
+                end = length - 1;
+            } else {
+                start = Long.parseLong(spec.substring(0, dash));
+                String endPart = spec.substring(dash + 1);
+                if (endPart.isEmpty()) {
+                    end = length - 1;
+                } else {
+                    end = Long.parseLong(endPart);
+                    // RFC 7233 2.1: last-byte-pos below first-byte-pos is invalid, so the header is ignored
+                    if (end < start)
+                        return null;
+                    end = Math.min(end, length - 1);
+                }
+            }
+
+            if (start >= length || start > end)
+                return new long[] { -1, -1 };
+            return new long[] { start, end };
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    static String httpDate(long millis) {
+        SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("GMT"));
+        return format.format(new Date(millis));
+    }
+}
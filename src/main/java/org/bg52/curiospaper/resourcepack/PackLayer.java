@@ -0,0 +1,66 @@
+package org.bg52.curiospaper.resourcepack;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * One independently downloadable pack of a layered build (1.20.3+): the base
+ * layer with CuriosPaper's own assets, or the overlay of a single registered
+ * resource source. Each layer has its own zip, hash and URL, so changing one
+ * plugin's assets only makes clients re-download that plugin's layer.
+ */
+public class PackLayer {
+    public static final String BASE_ID = "base";
+
+    private final String id;
+    private final UUID uuid;
+    private final File file;
+    private final String hash;
+    private final int fileCount;
+    private final long savedBytes;
+
+    PackLayer(String id, File file, String hash, int fileCount, long savedBytes) {
+        this.id = id;
+        this.uuid = uuidFor(id);
+        this.file = file;
+        this.hash = hash;
+        this.fileCount = fileCount;
+        this.savedBytes = savedBytes;
+    }
+
+    /**
+     * Stable client-side pack id for a layer. Re-sending a layer with the same
+     * id replaces the player's copy instead of stacking another pack.
+     */
+    static UUID uuidFor(String id) {
+        return UUID.nameUUIDFromBytes(("curiospaper:layer:" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public UUID getUuid() {
+        return uuid;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public int getFileCount() {
+        return fileCount;
+    }
+
+    /**
+     * @return bytes of duplicate textures left out of this layer
+     */
+    public long getSavedBytes() {
+        return savedBytes;
+    }
+}
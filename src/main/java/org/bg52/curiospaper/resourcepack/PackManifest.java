@@ -0,0 +1,288 @@
+package org.bg52.curiospaper.resourcepack;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Persistent record of the last resource pack build.
+ *
+ * Tracks a content hash for every source file (keyed by absolute path, and
+ * trusted while size and modification time are unchanged and the file was
+ * last modified clearly before it was hashed) plus the
+ * fingerprint and SHA-1 of the last pack written. Lets the pack builder skip
+ * re-hashing unchanged sources and skip zipping when nothing changed.
+ */
+class PackManifest {
+    private static final String HEADER = "# CuriosPaper resource pack manifest v1";
+    // Coarsest modification time resolution in common use (FAT, some network shares)
+    private static final long MTIME_GRANULARITY = 2000L;
+
+    private final File file;
+    private final Map<String, SourceRecord> sources = new HashMap<>();
+    private final Map<String, LayerRecord> layers = new HashMap<>();
+    private String packFingerprint;
+    private String packHash;
+    private long packSavedBytes;
+
+    PackManifest(File file) {
+        this.file = file;
+    }
+
+    static class SourceRecord {
+        final long size;
+        final long lastModified;
+        final String sha1;
+        // When the hash was taken; 0 for records from older manifests
+        final long hashedAt;
+
+        SourceRecord(long size, long lastModified, String sha1, long hashedAt) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.sha1 = sha1;
+            this.hashedAt = hashedAt;
+        }
+
+        /**
+         * A file written again within the timestamp resolution of the hash
+         * can keep its size and modification time with different content, so
+         * the record is only trusted once the file was older than that.
+         */
+        boolean matches(long size, long lastModified) {
+            return this.size == size && this.lastModified == lastModified
+                    && lastModified + MTIME_GRANULARITY < hashedAt;
+        }
+    }
+
+    static class LayerRecord {
+        final String fingerprint;
+        final String hash;
+        final long savedBytes;
+
+        LayerRecord(String fingerprint, String hash, long savedBytes) {
+            this.fingerprint = fingerprint;
+            this.hash = hash;
+            this.savedBytes = savedBytes;
+        }
+    }
+
+    /**
+     * Returns the content hash of a source file, re-hashing it when its size
+     * or modification time changed since the last build, or when it was
+     * modified too shortly before it was hashed to tell a later rewrite apart.
+     */
+    String hashSource(File source) throws IOException {
+        String key = source.getAbsolutePath();
+        long size = source.length();
+        long lastModified = source.lastModified();
+
+        SourceRecord record = sources.get(key);
+        if (record != null && record.matches(size, lastModified)) {
+            return record.sha1;
+        }
+
+        long hashedAt = System.currentTimeMillis();
+        String sha1;
+        try (InputStream in = Files.newInputStream(source.toPath())) {
+            MessageDigest digest = newSha1();
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, n);
+            }
+            sha1 = toHex(digest.digest());
+        }
+
+        sources.put(key, new SourceRecord(size, lastModified, sha1, hashedAt));
+        return sha1;
+    }
+
+    /**
+     * Drops source records that were not seen during the current build.
+     */
+    void retainSources(java.util.Set<String> seenPaths) {
+        sources.keySet().retainAll(seenPaths);
+    }
+
+    String getPackFingerprint() {
+        return packFingerprint;
+    }
+
+    String getPackHash() {
+        return packHash;
+    }
+
+    void setPack(String fingerprint, String hash) {
+        this.packFingerprint = fingerprint;
+        this.packHash = hash;
+    }
+
+    /**
+     * @return bytes deduplication removed from the last pack written
+     */
+    long getPackSavedBytes() {
+        return packSavedBytes;
+    }
+
+    void setPackSavedBytes(long savedBytes) {
+        this.packSavedBytes = savedBytes;
+    }
+
+    LayerRecord getLayer(String id) {
+        return layers.get(id);
+    }
+
+    void setLayer(String id, String fingerprint, String hash, long savedBytes) {
+        if (fingerprint == null || hash == null) {
+            layers.remove(id);
+        } else {
+            layers.put(id, new LayerRecord(fingerprint, hash, savedBytes));
+        }
+    }
+
+    java.util.Set<String> getLayerIds() {
+        return java.util.Collections.unmodifiableSet(layers.keySet());
+    }
+
+    void retainLayers(java.util.Set<String> ids) {
+        layers.keySet().retainAll(ids);
+    }
+
+    /**
+     * Forgets everything, forcing the next build to process every file.
+     */
+    void clear() {
+        sources.clear();
+        layers.clear();
+        packFingerprint = null;
+        packHash = null;
+        packSavedBytes = 0;
+    }
+
+    void load() {
+        clear();
+        if (!file.exists()) {
+            return;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+
+                String[] parts = line.split("\t", -1);
+                switch (parts[0]) {
+                    case "P":
+                        if (parts.length == 3) {
+                            packFingerprint = parts[1];
+                            packHash = parts[2];
+                        }
+                        break;
+                    case "D":
+                        if (parts.length == 2) {
+                            packSavedBytes = Long.parseLong(parts[1]);
+                        }
+                        break;
+                    case "L":
+                        if (parts.length >= 4) {
+                            layers.put(parts[1], new LayerRecord(parts[2], parts[3],
+                                    parts.length > 4 ? Long.parseLong(parts[4]) : 0L));
+                        }
+                        break;
+                    case "S":
+                        if (parts.length == 5) {
+                            sources.put(parts[4], new SourceRecord(Long.parseLong(parts[1]),
+                                    Long.parseLong(parts[2]), parts[3], 0L));
+                        } else if (parts.length == 6) {
+                            sources.put(parts[5], new SourceRecord(Long.parseLong(parts[1]),
+                                    Long.parseLong(parts[2]), parts[3], Long.parseLong(parts[4])));
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // A damaged manifest only costs us a full rebuild
+            clear();
+        }
+    }
+
+    void save() throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.newLine();
+
+            if (packFingerprint != null && packHash != null) {
+                writer.write("P\t" + packFingerprint + "\t" + packHash);
+                writer.newLine();
+                writer.write("D\t" + packSavedBytes);
+                writer.newLine();
+            }
+
+            for (Map.Entry<String, LayerRecord> entry : layers.entrySet()) {
+                writer.write("L\t" + entry.getKey() + "\t" + entry.getValue().fingerprint + "\t"
+                        + entry.getValue().hash + "\t" + entry.getValue().savedBytes);
+                writer.newLine();
+            }
+
+            for (Map.Entry<String, SourceRecord> entry : sources.entrySet()) {
+                SourceRecord record = entry.getValue();
+                writer.write("S\t" + record.size + "\t" + record.lastModified + "\t" + record.sha1 + "\t"
+                        + record.hashedAt + "\t" + entry.getKey());
+                writer.newLine();
+            }
+        }
+    }
+
+    static MessageDigest newSha1() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (java.security.NoSuchAlgorithmException e) {
+            // Every Java runtime is required to provide SHA-1
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static String sha1Hex(String value) {
+        return toHex(newSha1().digest(value.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * @return decoded bytes, or null if the string is not valid hex
+     */
+    static byte[] fromHex(String hex) {
+        if (hex == null || hex.length() % 2 != 0)
+            return null;
+
+        byte[] data = new byte[hex.length() / 2];
+        for (int i = 0; i < hex.length(); i += 2) {
+            int hi = Character.digit(hex.charAt(i), 16);
+            int lo = Character.digit(hex.charAt(i + 1), 16);
+            if (hi < 0 || lo < 0)
+                return null;
+            data[i / 2] = (byte) ((hi << 4) + lo);
+        }
+        return data;
+    }
+
+    static String toHex(byte[] hash) {
+        StringBuilder hexString = new StringBuilder(hash.length * 2);
+        for (byte b : hash) {
+            String hex = Integer.toHexString(0xff & b);
+            if (hex.length() == 1)
+                hexString.append('0');
+            hexString.append(hex);
+        }
+        return hexString.toString();
+    }
+}
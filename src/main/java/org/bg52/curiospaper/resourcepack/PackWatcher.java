@@ -0,0 +1,180 @@
+package org.bg52.curiospaper.resourcepack;
+
+import org.bg52.curiospaper.CuriosPaper;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches every registered resource folder and rebuilds the pack when assets
+ * change.
+ *
+ * Events are debounced: a rebuild starts once the folders have been quiet for
+ * resource-pack.auto-rebuild-delay milliseconds, so saving a batch of files
+ * (or an editor's temp-file dance) costs one incremental build. The build
+ * itself runs on the pack builder, never on this thread or the main thread.
+ * Config values are read on the main thread when the watcher starts, since
+ * Bukkit's config is not thread-safe.
+ */
+public class PackWatcher {
+    private final CuriosPaper plugin;
+    private final ResourcePackManager manager;
+    private final Map<WatchKey, Path> keys = new ConcurrentHashMap<>();
+    private WatchService watchService;
+    private Thread thread;
+    private volatile boolean running = false;
+    private long debounce;
+    private boolean autoResend;
+
+    public PackWatcher(CuriosPaper plugin, ResourcePackManager manager) {
+        this.plugin = plugin;
+        this.manager = manager;
+    }
+
+    public void start() {
+        debounce = Math.max(100L, plugin.getConfig().getLong("resource-pack.auto-rebuild-delay", 1000L));
+        autoResend = plugin.getConfig().getBoolean("resource-pack.auto-resend", false)
+                && plugin.getConfig().getBoolean("resource-pack.enabled", false);
+
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+        } catch (IOException e) {
+            plugin.getLogger().warning("Resource pack auto-rebuild unavailable: " + e.getMessage());
+            return;
+        }
+
+        running = true;
+        thread = new Thread(this::run, "CuriosPaper-PackWatcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void stop() {
+        running = false;
+        if (watchService != null) {
+            try {
+                // Wakes the watcher thread with ClosedWatchServiceException
+                watchService.close();
+            } catch (IOException ignored) {
+            }
+        }
+        keys.clear();
+    }
+
+    /**
+     * Starts watching a resource folder and everything below it.
+     */
+    public void watch(File folder) {
+        if (!running) {
+            return;
+        }
+        try {
+            registerAll(folder.toPath());
+        } catch (IOException e) {
+            plugin.getLogger().warning("Cannot watch " + folder + " for changes: " + e.getMessage());
+        }
+    }
+
+    // WatchService only reports direct children, so every directory is registered
+    private void registerAll(Path root) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                WatchKey key = dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+                keys.put(key, dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void run() {
+        // A folder that never goes quiet still gets rebuilt eventually
+        long maxDelay = debounce * 10;
+        long firstChangeAt = 0L;
+
+        try {
+            while (running) {
+                WatchKey key = firstChangeAt != 0L
+                        ? watchService.poll(debounce, TimeUnit.MILLISECONDS)
+                        : watchService.take();
+
+                if (key != null && handleEvents(key) && firstChangeAt == 0L) {
+                    firstChangeAt = System.currentTimeMillis();
+                }
+
+                if (firstChangeAt != 0L
+                        && (key == null || System.currentTimeMillis() - firstChangeAt >= maxDelay)) {
+                    firstChangeAt = 0L;
+                    rebuild();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Shutting down
+        }
+    }
+
+    /**
+     * @return true if any event may have changed the pack contents
+     */
+    private boolean handleEvents(WatchKey key) {
+        Path dir = keys.get(key);
+        boolean changed = false;
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                changed = true;
+                continue;
+            }
+            if (dir == null) {
+                continue;
+            }
+
+            Path child = dir.resolve((Path) event.context());
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(child)) {
+                try {
+                    registerAll(child);
+                } catch (IOException e) {
+                    plugin.getLogger().warning("Cannot watch " + child + " for changes: " + e.getMessage());
+                }
+            }
+            changed = true;
+        }
+
+        if (!key.reset()) {
+            // Directory was deleted
+            keys.remove(key);
+        }
+        return changed;
+    }
+
+    private void rebuild() {
+        String previousHash = manager.getPackHash();
+        plugin.getLogger().info("Resource pack sources changed, rebuilding...");
+
+        manager.generatePack().thenAccept(hash -> {
+            if (hash == null || Objects.equals(hash, previousHash) || !autoResend) {
+                return;
+            }
+
+            // Staggered through the delivery queue, like joins
+            plugin.getServer().getScheduler().runTask(plugin,
+                    () -> manager.getDelivery().enqueueAll(plugin.getServer().getOnlinePlayers()));
+        });
+    }
+}
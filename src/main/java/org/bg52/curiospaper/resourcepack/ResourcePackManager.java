@@ -1,14 +1,23 @@
 package org.bg52.curiospaper.resourcepack;
 
 import org.bg52.curiospaper.CuriosPaper;
+import org.bg52.curiospaper.util.VersionUtil;
 import org.bukkit.plugin.Plugin;
 
 import java.io.*;
 import java.nio.file.*;
-import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
 import java.security.MessageDigest;
 import java.util.*;
 import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -20,24 +29,72 @@ import com.google.gson.JsonArray;
 
 public class ResourcePackManager {
     private final CuriosPaper plugin;
-    private final File resourcePackDir;
-    private final File packFile;
+    private final File legacyBuildDir;
+    // Packs are stored as resource-pack-<sha1>.zip and layers as <sha1>.zip, so a
+    // hash always names the same bytes and a file is never replaced while served
+    private final File packDir;
+    private final File layerDir;
+    private final PackManifest manifest;
+    private final File embeddedStamp;
     private final Map<Plugin, File> registeredSources;
     private ResourcePackHost server;
-    private String packHash;
+    private final PackDelivery delivery;
+    private PackWatcher watcher;
+    private volatile String packHash;
+
+    // Layers of the last build (1.20.3+ only, empty otherwise), base layer first
+    private volatile List<PackLayer> layers = Collections.emptyList();
+    private volatile Map<String, PackLayer> layersByHash = Collections.emptyMap();
+    // Pack ids players may still hold but that no longer exist
+    private volatile Set<UUID> retiredPackIds = Collections.emptySet();
+    // Pack and layer hashes currently published. Once replaced, their files are
+    // kept for one more build so readers that resolved them just before can finish
+    private Set<String> liveHashes = Collections.emptySet();
 
     private final Gson gson = new Gson();
 
     // Dirty build flag
-    private boolean dirty = false;
+    private volatile boolean dirty = false;
+    // Config snapshot for the queued build, taken on the thread calling generatePack
+    private boolean queuedLayered;
+    private boolean queuedDeduplicate;
+
+    // Background builder: one build at a time, never on the main thread
+    private final ExecutorService buildExecutor;
+    private CompletableFuture<String> queuedBuild;
+    private volatile boolean building = false;
+    private volatile int buildFilesDone = 0;
+    private volatile int buildFilesTotal = 0;
+    private volatile long buildStartedAt = 0L;
+    private volatile long lastBuildDuration = -1L;
+    private volatile String buildPhase = "idle";
+    private volatile long dedupSavedBytes = 0L;
+
+    // Merged model bytes from the last build, reused while their inputs are unchanged
+    private Map<String, MergedOutput> mergedOutputs = new HashMap<>();
+
+    // DOS epoch in local time: the earliest timestamp a zip entry can carry
+    // without extra fields, used for every entry to keep the zip reproducible
+    private static final long ZIP_ENTRY_TIME = new GregorianCalendar(1980, Calendar.JANUARY, 1).getTimeInMillis();
+
+    private static final String DEFAULT_MCMETA = "{\n" +
+            "  \"pack\": {\n" +
+            "    \"pack_format\": 15,\n" +
+            "    \"description\": \"CuriosPaper Generated Pack\"\n" +
+            "  }\n" +
+            "}";
 
     // Namespace rules
     private final Set<String> reservedNamespaces = new HashSet<>(Arrays.asList("curiospaper"));
     private final Map<String, Plugin> namespaceOwners = new HashMap<>();
 
-    // Conflict tracking
-    private final List<String> conflictLog = new ArrayList<>();
-    private final List<String> namespaceConflictLog = new ArrayList<>();
+    // Conflict tracking. File conflicts are replaced wholesale at the end of each
+    // build; both lists are capped, totals keep counting past the cap
+    private static final int MAX_TRACKED_CONFLICTS = 200;
+    private static final int MAX_LOGGED_CONFLICTS = 20;
+    private volatile ConflictReport conflictReport = new ConflictReport();
+    private final Set<PackConflict> namespaceConflicts = new LinkedHashSet<>();
+    private int namespaceConflictTotal = 0;
 
     // Config options
     private boolean allowMinecraftNamespace;
@@ -45,19 +102,63 @@ public class ResourcePackManager {
 
     public ResourcePackManager(CuriosPaper plugin) {
         this.plugin = plugin;
-        this.resourcePackDir = new File(plugin.getDataFolder(), "resource-pack-build");
-        this.packFile = new File(plugin.getDataFolder(), "resource-pack.zip");
-        this.registeredSources = new HashMap<>();
+        this.legacyBuildDir = new File(plugin.getDataFolder(), "resource-pack-build");
+        this.packDir = plugin.getDataFolder();
+        this.layerDir = new File(plugin.getDataFolder(), "resource-pack-layers");
+        this.manifest = new PackManifest(new File(plugin.getDataFolder(), "resource-pack-manifest.txt"));
+        this.embeddedStamp = new File(plugin.getDataFolder(), "resource-pack-embedded.stamp");
+        // Registration order decides which plugin owns a contested file, keep it stable
+        this.registeredSources = new LinkedHashMap<>();
+        this.delivery = new PackDelivery(plugin, this);
+        this.buildExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "CuriosPaper-PackBuilder");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     // --- Exposed for commands / debugging ---
 
     public List<String> getConflictLog() {
-        return Collections.unmodifiableList(conflictLog);
+        List<String> lines = new ArrayList<>();
+        for (PackConflict conflict : conflictReport.getConflicts()) {
+            lines.add(conflict.toString());
+        }
+        return lines;
+    }
+
+    public synchronized List<String> getNamespaceConflictLog() {
+        List<String> lines = new ArrayList<>();
+        for (PackConflict conflict : namespaceConflicts) {
+            lines.add(conflict.toString());
+        }
+        return lines;
+    }
+
+    /**
+     * @return file conflicts and namespace ownership of the last build
+     */
+    public ConflictReport getConflictReport() {
+        return conflictReport;
+    }
+
+    public synchronized List<PackConflict> getNamespaceConflicts() {
+        return new ArrayList<>(namespaceConflicts);
     }
 
-    public List<String> getNamespaceConflictLog() {
-        return Collections.unmodifiableList(namespaceConflictLog);
+    public synchronized int getNamespaceConflictTotal() {
+        return namespaceConflictTotal;
+    }
+
+    private synchronized void addNamespaceConflict(PackConflict conflict) {
+        // Re-registering the same folder must not grow the log
+        if (namespaceConflicts.contains(conflict)) {
+            return;
+        }
+        namespaceConflictTotal++;
+        if (namespaceConflicts.size() < MAX_TRACKED_CONFLICTS) {
+            namespaceConflicts.add(conflict);
+        }
     }
 
     public Map<Plugin, File> getRegisteredSources() {
@@ -68,15 +169,95 @@ public class ResourcePackManager {
         return Collections.unmodifiableSet(namespaceOwners.keySet());
     }
 
+    /**
+     * @return the current pack file, or null before the first build
+     */
     public File getPackFile() {
-        return packFile;
+        return getPackFile(packHash);
+    }
+
+    /**
+     * @return the file holding the pack with the given hash (it may already be
+     *         deleted if that pack was retired), or null for a null hash
+     */
+    public File getPackFile(String hash) {
+        return hash != null ? new File(packDir, "resource-pack-" + hash + ".zip") : null;
+    }
+
+    private File getLayerFile(String hash) {
+        return new File(layerDir, hash + ".zip");
+    }
+
+    public PackDelivery getDelivery() {
+        return delivery;
+    }
+
+    /**
+     * Whether packs are delivered as separate layers. Needs 1.20.3+ clients,
+     * which can hold several server packs at once.
+     */
+    public boolean isLayeredDelivery() {
+        return plugin.getConfig().getBoolean("resource-pack.layered", true)
+                && VersionUtil.supportsMultipleResourcePacks();
+    }
+
+    public List<PackLayer> getLayers() {
+        return layers;
+    }
+
+    public PackLayer getLayerByHash(String hash) {
+        return hash != null ? layersByHash.get(hash) : null;
+    }
+
+    public Set<UUID> getRetiredPackIds() {
+        return retiredPackIds;
     }
 
     public boolean isDirty() {
         return dirty;
     }
 
-    public void registerResource(Plugin plugin, File sourceFolder) {
+    public boolean isBuilding() {
+        return building;
+    }
+
+    /**
+     * @return current build step (scanning, hashing, zipping), or idle
+     */
+    public String getBuildPhase() {
+        return buildPhase;
+    }
+
+    public int getBuildFilesDone() {
+        return buildFilesDone;
+    }
+
+    public int getBuildFilesTotal() {
+        return buildFilesTotal;
+    }
+
+    /**
+     * @return milliseconds the running build has taken so far, or 0 when idle
+     */
+    public long getBuildElapsed() {
+        return building ? System.currentTimeMillis() - buildStartedAt : 0L;
+    }
+
+    /**
+     * @return bytes of duplicate textures left out of the current pack
+     */
+    public long getDedupSavedBytes() {
+        return dedupSavedBytes;
+    }
+
+    /**
+     * @return duration of the last finished build in milliseconds, or -1 if none
+     */
+    public long getLastBuildDuration() {
+        return lastBuildDuration;
+    }
+
+    public synchronized void registerResource(Plugin plugin, File sourceFolder) {
         if (!sourceFolder.exists() || !sourceFolder.isDirectory()) {
             plugin.getLogger().warning("Resource folder missing for plugin: " + plugin.getName());
             return;
@@ -114,8 +295,8 @@ public class ResourcePackManager {
                         + "Its resources will NOT be registered. Use your own namespace.";
 
                 this.plugin.getLogger().severe(msg);
-                namespaceConflictLog.add("RESERVED NAMESPACE: plugin=" + plugin.getName()
-                        + " namespace=" + namespace);
+                addNamespaceConflict(new PackConflict(PackConflict.Type.RESERVED_NAMESPACE, namespace, null,
+                        this.plugin.getName(), plugin.getName()));
 
                 return; // abort registration for this plugin
             }
@@ -134,7 +315,8 @@ public class ResourcePackManager {
                             + "Skipping its 'minecraft' assets.";
 
                     this.plugin.getLogger().warning(msg);
-                    namespaceConflictLog.add("MINECRAFT NAMESPACE BLOCKED: plugin=" + plugin.getName());
+                    addNamespaceConflict(new PackConflict(PackConflict.Type.MINECRAFT_NAMESPACE_BLOCKED, namespace,
+                            null, null, plugin.getName()));
                     continue;
                 }
                 // else fall through to ownership checks
@@ -150,9 +332,8 @@ public class ResourcePackManager {
                             + ". Resources from " + plugin.getName() + " will NOT be registered.";
 
                     this.plugin.getLogger().severe(msg);
-                    namespaceConflictLog.add("NAMESPACE OWNER CONFLICT: namespace=" + namespace
-                            + " owner=" + owner.getName()
-                            + " conflicting=" + plugin.getName());
+                    addNamespaceConflict(new PackConflict(PackConflict.Type.NAMESPACE_OWNER, namespace, null,
+                            owner.getName(), plugin.getName()));
 
                     return;
                 }
@@ -162,9 +343,8 @@ public class ResourcePackManager {
                             + namespace + "' between " + owner.getName() + " and " + plugin.getName();
                     this.plugin.getLogger().warning(msg);
                     // Optional: also log as a soft conflict:
-                    namespaceConflictLog.add("NAMESPACE CONFLICT ALLOWED: namespace=" + namespace
-                            + " owner=" + owner.getName()
-                            + " conflicting=" + plugin.getName());
+                    addNamespaceConflict(new PackConflict(PackConflict.Type.NAMESPACE_SHARED, namespace, null,
+                            owner.getName(), plugin.getName()));
                 }
             } else {
                 namespaceOwners.put(namespace, plugin);
@@ -173,6 +353,10 @@ public class ResourcePackManager {
 
         registeredSources.put(plugin, sourceFolder);
         dirty = true;
+
+        if (watcher != null) {
+            watcher.watch(sourceFolder);
+        }
     }
 
     public void initialize() {
@@ -189,9 +373,20 @@ public class ResourcePackManager {
             }
         }
 
-        // 1) Stream ALL files from /resources in the JAR into the data folder
+        // 1) Stream ALL files from /resources in the JAR into the data folder,
+        // unless this exact jar content was already extracted and is all still there
+        boolean embeddedUnchanged = false;
         try {
-            extractEmbeddedResourcesFolder("resources/", ownResources);
+            String stamp = embeddedResourcesStamp("resources/");
+            if (stamp != null && stamp.equals(readEmbeddedStamp())
+                    && allEmbeddedFilesPresent("resources/", ownResources)) {
+                embeddedUnchanged = true;
+            } else {
+                extractEmbeddedResourcesFolder("resources/", ownResources);
+                if (stamp != null) {
+                    Files.write(embeddedStamp.toPath(), stamp.getBytes(StandardCharsets.UTF_8));
+                }
+            }
         } catch (Exception e) {
             plugin.getLogger().severe("Failed to extract embedded resources: " + e.getMessage());
             e.printStackTrace();
@@ -204,6 +399,19 @@ public class ResourcePackManager {
             plugin.getLogger().info("Created default pack.mcmeta in resources folder.");
         }
 
+        // Previous build state, so unchanged files are not reprocessed
+        manifest.load();
+
+        // Serve the previous pack until the first build, so joins don't wait for it
+        // and clients keep their cached copy
+        String reusedHash = embeddedUnchanged ? restorePreviousPack() : null;
+
+        // Watch sources for edits; folders registered later are added as they come
+        if (plugin.getConfig().getBoolean("resource-pack.auto-rebuild", true)) {
+            watcher = new PackWatcher(plugin, this);
+            watcher.start();
+        }
+
         // register own resources — NO auto-build
         registerResource(plugin, ownResources);
 
@@ -212,25 +420,142 @@ public class ResourcePackManager {
 
         // delayed build — allow addons time to register
         plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
-            if (dirty)
-                generatePack();
+            if (!dirty)
+                return;
+            generatePack().thenAccept(hash -> {
+                // Addons changed their assets while we were down: players who got the
+                // reused pack need the new one
+                if (reusedHash == null || hash == null || hash.equals(reusedHash)) {
+                    return;
+                }
+                plugin.getServer().getScheduler().runTask(plugin, () -> {
+                    // Config is only read on the main thread
+                    if (plugin.getConfig().getBoolean("resource-pack.enabled", false)) {
+                        delivery.enqueueAll(plugin.getServer().getOnlinePlayers());
+                    }
+                });
+            });
         }, 200L); // 10 seconds
 
         // Start server if enabled
         if (plugin.getConfig().getBoolean("resource-pack.enabled", false)) {
             int port = plugin.getConfig().getInt("resource-pack.port", 8080);
-            server = new ResourcePackServer(plugin, port, packFile);
+            server = new ResourcePackServer(plugin, port, this);
             server.start();
+            delivery.start();
         }
     }
 
-    private void extractEmbeddedResourcesFolder(String jarPrefix, File targetRoot) throws Exception {
-        // jarPrefix should end with "/", e.g. "resources/"
-        if (!jarPrefix.endsWith("/")) {
-            jarPrefix = jarPrefix + "/";
+    /**
+     * Makes the pack, SHA-1 and layers of the last build current again, if
+     * they are still on disk.
+     *
+     * @return the restored pack hash, or null if nothing could be reused
+     */
+    private String restorePreviousPack() {
+        String hash = manifest.getPackHash();
+        if (hash == null || !getPackFile(hash).isFile()) {
+            return null;
         }
 
-        // Locate the plugin JAR file
+        if (isLayeredDelivery()) {
+            List<String> ids = new ArrayList<>(manifest.getLayerIds());
+            Collections.sort(ids);
+            // Base layer first, as in a build
+            if (ids.remove(PackLayer.BASE_ID)) {
+                ids.add(0, PackLayer.BASE_ID);
+            }
+
+            Set<String> restoredHashes = new HashSet<>();
+            restoredHashes.add(hash);
+            List<PackLayer> restored = new ArrayList<>();
+            for (String id : ids) {
+                PackManifest.LayerRecord previous = manifest.getLayer(id);
+                File file = getLayerFile(previous.hash);
+                try (java.util.zip.ZipFile zip = new java.util.zip.ZipFile(file)) {
+                    restored.add(new PackLayer(id, file, previous.hash, zip.size(), previous.savedBytes));
+                    restoredHashes.add(previous.hash);
+                } catch (IOException e) {
+                    // A layer went missing; leave delivery to the first build
+                    return null;
+                }
+            }
+            publishLayers(restored, true);
+            liveHashes = restoredHashes;
+        } else {
+            liveHashes = Collections.singleton(hash);
+        }
+
+        this.packHash = hash;
+        this.dedupSavedBytes = manifest.getPackSavedBytes();
+        plugin.getLogger().info("Embedded resources unchanged, reusing previous resource pack. Hash: " + hash);
+        return hash;
+    }
+
+    private String readEmbeddedStamp() {
+        if (!embeddedStamp.isFile()) {
+            return null;
+        }
+        try {
+            return new String(Files.readAllBytes(embeddedStamp.toPath()), StandardCharsets.UTF_8).trim();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Hash of the embedded resources, read from the jar's central directory
+     * (names, CRCs and sizes), so nothing has to be decompressed.
+     *
+     * @return the stamp, or null if the plugin jar can't be located
+     */
+    private String embeddedResourcesStamp(String jarPrefix) throws Exception {
+        File jarFile = locatePluginJar();
+        if (jarFile == null) {
+            return null;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        try (java.util.jar.JarFile jar = new java.util.jar.JarFile(jarFile)) {
+            java.util.Enumeration<java.util.jar.JarEntry> entries = jar.entries();
+            while (entries.hasMoreElements()) {
+                java.util.jar.JarEntry entry = entries.nextElement();
+                if (entry.getName().startsWith(jarPrefix)) {
+                    sb.append(entry.getName()).append('\t').append(entry.getCrc()).append('\t')
+                            .append(entry.getSize()).append('\n');
+                }
+            }
+        }
+        return PackManifest.sha1Hex(sb.toString());
+    }
+
+    /**
+     * Checks that every embedded file still exists in the target folder, so files
+     * an admin deleted are extracted again. Only stats files, nothing is read.
+     */
+    private boolean allEmbeddedFilesPresent(String jarPrefix, File targetRoot) throws Exception {
+        File jarFile = locatePluginJar();
+        if (jarFile == null) {
+            return false;
+        }
+
+        try (java.util.jar.JarFile jar = new java.util.jar.JarFile(jarFile)) {
+            java.util.Enumeration<java.util.jar.JarEntry> entries = jar.entries();
+            while (entries.hasMoreElements()) {
+                java.util.jar.JarEntry entry = entries.nextElement();
+                String name = entry.getName();
+                if (entry.isDirectory() || !name.startsWith(jarPrefix)) {
+                    continue;
+                }
+                if (!new File(targetRoot, name.substring(jarPrefix.length())).exists()) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private File locatePluginJar() throws Exception {
         java.net.URL jarUrl = plugin.getClass()
                 .getProtectionDomain()
                 .getCodeSource()
@@ -238,12 +563,26 @@ public class ResourcePackManager {
 
         if (jarUrl == null) {
             plugin.getLogger().warning("Could not locate plugin JAR; skipping embedded resources extraction.");
-            return;
+            return null;
         }
 
         File jarFile = new File(jarUrl.toURI());
         if (!jarFile.isFile()) {
             plugin.getLogger().warning("Plugin code source is not a file: " + jarFile.getAbsolutePath());
+            return null;
+        }
+        return jarFile;
+    }
+
+    private void extractEmbeddedResourcesFolder(String jarPrefix, File targetRoot) throws Exception {
+        // jarPrefix should end with "/", e.g. "resources/"
+        if (!jarPrefix.endsWith("/")) {
+            jarPrefix = jarPrefix + "/";
+        }
+
+        // Locate the plugin JAR file
+        File jarFile = locatePluginJar();
+        if (jarFile == null) {
             return;
         }
 
@@ -297,9 +636,25 @@ public class ResourcePackManager {
     }
 
     public void shutdown() {
+        if (watcher != null) {
+            watcher.stop();
+        }
+        delivery.stop();
+        buildExecutor.shutdown();
+        try {
+            // Let a running build finish writing so the pack file is never left half-swapped
+            if (!buildExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+                buildExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            buildExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+
         if (server != null) {
             server.stop();
         }
+        HttpPacketHandler.releaseSharedPack();
     }
 
     public String getPackHash() {
@@ -307,65 +662,753 @@ public class ResourcePackManager {
     }
 
     public String getPackUrl() {
+        // Hash-versioned URL, so the pack can be cached forever by clients and proxies
+        String hash = packHash;
+        return getBaseUrl() + (hash != null ? PackHttp.versionedPath(hash) : PackHttp.LEGACY_PATH);
+    }
+
+    public String getLayerUrl(PackLayer layer) {
+        return getBaseUrl() + PackHttp.versionedPath(layer.getHash());
+    }
+
+    private String getBaseUrl() {
         String host = plugin.getConfig().getString("resource-pack.host-ip", "localhost");
         int port = plugin.getConfig().getInt("resource-pack.port", 8080);
 
         if (port == -1 && server != null) {
             port = server.getPort();
         }
-
-        return "http://" + host + ":" + port + "/pack.zip";
+        return "http://" + host + ":" + port;
     }
 
-    public void generatePack() {
+    /**
+     * Queues a pack build on the background builder. Requests made while a
+     * build is still waiting to start share that build. The served pack, hash
+     * and URL only change once the new pack has been fully written, so players
+     * joining mid-build receive the previous pack.
+     *
+     * @return completes with the new pack hash (null if the build failed)
+     */
+    public synchronized CompletableFuture<String> generatePack() {
         dirty = false;
-        conflictLog.clear();
+        // Bukkit config is not thread-safe; the builder only sees this snapshot
+        queuedLayered = isLayeredDelivery();
+        queuedDeduplicate = plugin.getConfig().getBoolean("resource-pack.deduplicate", true);
+        if (queuedBuild != null) {
+            return queuedBuild;
+        }
 
+        CompletableFuture<String> future = new CompletableFuture<>();
+        queuedBuild = future;
+        try {
+            buildExecutor.execute(() -> {
+                Map<Plugin, File> sources;
+                boolean layered;
+                boolean deduplicate;
+                synchronized (ResourcePackManager.this) {
+                    queuedBuild = null;
+                    sources = new LinkedHashMap<>(registeredSources);
+                    layered = queuedLayered;
+                    deduplicate = queuedDeduplicate;
+                }
+
+                String hash = null;
+                try {
+                    hash = buildPack(sources, layered, deduplicate);
+                } catch (Throwable t) {
+                    plugin.getLogger().log(Level.SEVERE, "Resource pack build failed", t);
+                }
+                if (hash == null) {
+                    // No pack was published, so the next trigger must build again
+                    dirty = true;
+                }
+                future.complete(hash);
+            });
+        } catch (java.util.concurrent.RejectedExecutionException e) {
+            // Plugin is shutting down
+            queuedBuild = null;
+            future.complete(packHash);
+        }
+        return future;
+    }
+
+    private String buildPack(Map<Plugin, File> sources, boolean layered, boolean deduplicate) {
+        ConflictReport conflicts = new ConflictReport();
+
+        long startTime = System.currentTimeMillis();
+        buildStartedAt = startTime;
+        buildFilesDone = 0;
+        buildFilesTotal = 0;
+        building = true;
+        try {
+            return runBuild(sources, layered, deduplicate, conflicts, startTime);
+        } finally {
+            building = false;
+            buildPhase = "idle";
+            lastBuildDuration = System.currentTimeMillis() - startTime;
+            conflictReport = conflicts;
+        }
+    }
+
+    private String runBuild(Map<Plugin, File> sources, boolean layered, boolean deduplicate,
+            ConflictReport conflicts, long startTime) {
         plugin.getLogger().info("Building CuriosPaper resource pack...");
 
-        if (resourcePackDir.exists())
-            deleteDirectory(resourcePackDir);
-        resourcePackDir.mkdirs();
+        // Packs used to be staged on disk; that directory is no longer needed
+        if (legacyBuildDir.exists())
+            deleteDirectory(legacyBuildDir);
 
-        for (Map.Entry<Plugin, File> entry : registeredSources.entrySet()) {
+        // 1) Collect every contributor of every output path, in registration order
+        buildPhase = "scanning";
+        Map<String, List<Contributor>> contributions = new LinkedHashMap<>();
+        for (Map.Entry<Plugin, File> entry : sources.entrySet()) {
             Plugin pl = entry.getKey();
             File src = entry.getValue();
 
             try {
-                copyFolderStrict(pl, src, resourcePackDir);
+                collectFiles(pl, src, src, contributions);
             } catch (Exception e) {
-                plugin.getLogger().severe("Failed while copying " + pl.getName() + ": " + e.getMessage());
+                plugin.getLogger().severe("Failed while scanning " + pl.getName() + ": " + e.getMessage());
+            }
+        }
+
+        // Namespace -> owner -> file count, built once from the contribution index
+        for (Map.Entry<String, List<Contributor>> entry : contributions.entrySet()) {
+            String namespace = namespaceOf(entry.getKey());
+            for (Contributor contributor : entry.getValue()) {
+                conflicts.countFile(namespace, contributor.plugin.getName());
+            }
+        }
+
+        // Layers in delivery order: CuriosPaper's base first, then one overlay per source
+        Map<String, LayerBuild> layerBuilds = new LinkedHashMap<>();
+        if (layered) {
+            layerBuilds.put(PackLayer.BASE_ID, new LayerBuild());
+            for (Plugin pl : sources.keySet()) {
+                layerBuilds.putIfAbsent(layerId(pl), new LayerBuild());
             }
         }
 
+        // 2) Resolve every output path to a virtual pack entry, fingerprinted from
+        // its contributors' content hashes
+        buildPhase = "hashing";
+        Set<String> seenSources = new HashSet<>();
+        Map<String, String> fingerprints = new HashMap<>();
+        // Sorted, so the zip lists entries in the same order on every build
+        Map<String, PackEntry> entries = new TreeMap<>();
+        Map<String, MergedOutput> merged = new HashMap<>();
+        int reused = 0;
+        buildFilesDone = 0;
+        buildFilesTotal = contributions.size();
+
+        for (Map.Entry<String, List<Contributor>> entry : contributions.entrySet()) {
+            buildFilesDone++;
+            String path = entry.getKey();
+            List<Contributor> contributors = entry.getValue();
+            // Decided once per path; every later step reuses it
+            boolean mergeable = contributors.size() > 1 && isMergeableJson(path);
+
+            String fingerprint;
+            try {
+                StringBuilder sb = new StringBuilder();
+                for (Contributor contributor : contributors) {
+                    seenSources.add(contributor.file.getAbsolutePath());
+                    sb.append(contributor.plugin.getName()).append(':')
+                            .append(manifest.hashSource(contributor.file)).append(';');
+                }
+                fingerprint = PackManifest.sha1Hex(sb.toString());
+            } catch (IOException e) {
+                plugin.getLogger().severe("Failed to hash " + path + ": " + e.getMessage());
+                continue;
+            }
+
+            if (contributors.size() > 1 && !mergeable) {
+                recordConflicts(conflicts, path, contributors);
+            }
+
+            if (mergeable) {
+                MergedOutput previous = mergedOutputs.get(path);
+                if (previous != null && previous.fingerprint.equals(fingerprint)) {
+                    reused++;
+                } else {
+                    try {
+                        previous = new MergedOutput(fingerprint, mergeContributors(path, contributors));
+                    } catch (Exception e) {
+                        plugin.getLogger().severe("Failed while merging " + path + ": " + e.getMessage());
+                        continue;
+                    }
+                }
+                merged.put(path, previous);
+                entries.put(path, new PackEntry(previous.data));
+            } else {
+                entries.put(path, new PackEntry(contributors.get(0).file));
+            }
+            fingerprints.put(path, fingerprint);
+
+            if (layered) {
+                assignToLayer(layerBuilds, path, contributors, mergeable, entries.get(path), fingerprint);
+            }
+        }
+        mergedOutputs = merged;
+
         // Ensure mcmeta exists
-        if (!new File(resourcePackDir, "pack.mcmeta").exists()) {
-            createDefaultMcmeta(resourcePackDir);
+        if (!entries.containsKey("pack.mcmeta")) {
+            entries.put("pack.mcmeta", new PackEntry(DEFAULT_MCMETA.getBytes(StandardCharsets.UTF_8)));
+            fingerprints.put("pack.mcmeta", "default");
+        }
+
+        // Deduplication changes the output without changing any input
+        if (deduplicate) {
+            fingerprints.put("#deduplicate", "1");
+        }
+
+        // 3) Zip and hash only if any output actually changed
+        String packFingerprint = fingerprintOf(fingerprints);
+        // Layers check texture references against the whole pack, as it was before deduplication
+        Map<String, PackEntry> allEntries = layered ? new TreeMap<>(entries) : entries;
+
+        String newHash = null;
+        long savedBytes = 0L;
+        if (packFingerprint.equals(manifest.getPackFingerprint()) && manifest.getPackHash() != null
+                && getPackFile(manifest.getPackHash()).exists()) {
+            newHash = manifest.getPackHash();
+            savedBytes = manifest.getPackSavedBytes();
+            plugin.getLogger().info("Pack unchanged (" + entries.size() + " files). Hash: " + newHash);
+        } else {
+            // Written under a temporary name, then renamed to its hash. The served
+            // pack keeps its own file until the new hash is published
+            buildPhase = "zipping";
+            File tempFile = new File(packDir, "resource-pack.zip.tmp");
+            try {
+                if (deduplicate) {
+                    savedBytes = deduplicate(entries, entries);
+                }
+                newHash = writePack(entries, tempFile);
+                storeByHash(tempFile, getPackFile(newHash));
+                plugin.getLogger().info("Pack built in " + (System.currentTimeMillis() - startTime) + "ms ("
+                        + entries.size() + " files, " + reused + " merged models reused, "
+                        + savedBytes + " bytes deduplicated). Hash: " + newHash);
+            } catch (Exception e) {
+                plugin.getLogger().severe("Failed to zip pack: " + e.getMessage());
+                tempFile.delete();
+                packFingerprint = null;
+                newHash = null;
+            }
+        }
+
+        // 4) Layers reuse the same entries, so only layers whose files changed are re-zipped
+        List<PackLayer> newLayers = layered ? writeLayers(layerBuilds, deduplicate, allEntries)
+                : Collections.<PackLayer>emptyList();
+        publishLayers(newLayers, layered);
+
+        if (newHash != null) {
+            this.packHash = newHash;
+            this.dedupSavedBytes = savedBytes;
         }
 
+        // Old files only go after the new hashes are published
+        deleteRetiredFiles(newLayers);
+
+        if (!layered) {
+            manifest.retainLayers(Collections.<String>emptySet());
+        }
+        manifest.retainSources(seenSources);
+        manifest.setPack(packFingerprint, newHash);
+        manifest.setPackSavedBytes(savedBytes);
         try {
-            zipDirectory(resourcePackDir, packFile);
-            this.packHash = calculateSha1(packFile);
-            plugin.getLogger().info("Pack built. Hash: " + this.packHash);
-        } catch (Exception e) {
-            plugin.getLogger().severe("Failed to zip pack: " + e.getMessage());
+            manifest.save();
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to save resource pack manifest: " + e.getMessage());
         }
 
-        if (!conflictLog.isEmpty()) {
+        if (conflicts.getTotal() > 0) {
             plugin.getLogger().warning("=== CuriosPaper Resource Pack Conflicts ===");
-            conflictLog.forEach(plugin.getLogger()::warning);
+            List<PackConflict> tracked = conflicts.getConflicts();
+            for (int i = 0; i < tracked.size() && i < MAX_LOGGED_CONFLICTS; i++) {
+                plugin.getLogger().warning(tracked.get(i).toString());
+            }
+            if (conflicts.getTotal() > MAX_LOGGED_CONFLICTS) {
+                plugin.getLogger().warning("... and " + (conflicts.getTotal() - MAX_LOGGED_CONFLICTS)
+                        + " more (see /curios rp conflicts)");
+            }
         }
+
+        return newHash;
+    }
+
+    /**
+     * Streams every entry into the zip in a single pass. The zip bytes run
+     * through a digest on their way to disk, so the pack is hashed without
+     * being read back.
+     *
+     * Output is reproducible: entries arrive sorted, carry a fixed timestamp and
+     * use a fixed compression level, so unchanged content keeps its SHA-1 (and
+     * clients keep their cached copy) across rebuilds and restarts.
+     */
+    private String writePack(Map<String, PackEntry> entries, File zipFile) throws IOException {
+        MessageDigest digest = PackManifest.newSha1();
+        buildFilesDone = 0;
+        buildFilesTotal = entries.size();
+
+        try (OutputStream fos = new BufferedOutputStream(new FileOutputStream(zipFile));
+                DigestOutputStream dos = new DigestOutputStream(fos, digest);
+                ZipOutputStream zos = new ZipOutputStream(dos)) {
+            zos.setLevel(Deflater.BEST_COMPRESSION);
+
+            for (Map.Entry<String, PackEntry> entry : entries.entrySet()) {
+                String path = entry.getKey();
+                PackEntry packEntry = entry.getValue();
+
+                ZipEntry zipEntry = new ZipEntry(path);
+                zipEntry.setTime(ZIP_ENTRY_TIME);
+
+                if (isPrecompressed(path)) {
+                    // Deflating PNG/OGG costs CPU and saves nothing
+                    byte[] data = packEntry.readBytes();
+                    CRC32 crc = new CRC32();
+                    crc.update(data);
+                    zipEntry.setMethod(ZipEntry.STORED);
+                    zipEntry.setSize(data.length);
+                    zipEntry.setCompressedSize(data.length);
+                    zipEntry.setCrc(crc.getValue());
+                    zos.putNextEntry(zipEntry);
+                    zos.write(data);
+                } else {
+                    zos.putNextEntry(zipEntry);
+                    packEntry.writeTo(zos);
+                }
+                zos.closeEntry();
+                buildFilesDone++;
+            }
+        }
+
+        return PackManifest.toHex(digest.digest());
+    }
+
+    private boolean isPrecompressed(String path) {
+        String lower = path.toLowerCase(Locale.ROOT);
+        return lower.endsWith(".png") || lower.endsWith(".ogg");
+    }
+
+    private String fingerprintOf(Map<String, String> fingerprints) {
+        List<String> sortedPaths = new ArrayList<>(fingerprints.keySet());
+        Collections.sort(sortedPaths);
+        StringBuilder input = new StringBuilder();
+        for (String path : sortedPaths) {
+            input.append(path).append('=').append(fingerprints.get(path)).append('\n');
+        }
+        return PackManifest.sha1Hex(input.toString());
+    }
+
+    /**
+     * Moves a freshly written zip to its content-addressed name. A file already
+     * there holds the same bytes and is left alone.
+     */
+    private void storeByHash(File tempFile, File target) throws IOException {
+        if (target.exists()) {
+            tempFile.delete();
+            return;
+        }
+        swapFile(tempFile, target);
+    }
+
+    /**
+     * Deletes pack and layer files that neither the current nor the previous
+     * build published, including files named by the old fixed scheme. Files
+     * still open elsewhere (Windows) fail to delete and are retried next build.
+     */
+    private void deleteRetiredFiles(List<PackLayer> currentLayers) {
+        Set<String> current = new HashSet<>();
+        if (packHash != null) {
+            current.add(packHash);
+        }
+        for (PackLayer layer : currentLayers) {
+            current.add(layer.getHash());
+        }
+
+        Set<String> keep = new HashSet<>(current);
+        keep.addAll(liveHashes);
+        liveHashes = current;
+
+        File[] packs = packDir.listFiles((dir, name) -> name.startsWith("resource-pack") && name.endsWith(".zip"));
+        if (packs != null) {
+            for (File file : packs) {
+                String name = file.getName();
+                String hash = name.startsWith("resource-pack-")
+                        ? name.substring("resource-pack-".length(), name.length() - 4)
+                        : null;
+                if (hash == null || !keep.contains(hash)) {
+                    file.delete();
+                }
+            }
+        }
+
+        File[] layerFiles = layerDir.listFiles();
+        if (layerFiles != null) {
+            for (File file : layerFiles) {
+                String name = file.getName();
+                if (!name.endsWith(".zip") || !keep.contains(name.substring(0, name.length() - 4))) {
+                    file.delete();
+                }
+            }
+        }
+    }
+
+    private void swapFile(File tempFile, File target) throws IOException {
+        try {
+            Files.move(tempFile.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private String layerId(Plugin owner) {
+        if (owner == plugin)
+            return PackLayer.BASE_ID;
+        return "overlay-" + owner.getName().toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9_.-]", "_");
+    }
+
+    /**
+     * Entries and fingerprints of one layer during a build.
+     */
+    private static class LayerBuild {
+        final Map<String, PackEntry> entries = new TreeMap<>();
+        final Map<String, String> fingerprints = new HashMap<>();
+
+        void add(String path, PackEntry entry, String fingerprint) {
+            entries.put(path, entry);
+            fingerprints.put(path, fingerprint);
+        }
+
+        boolean hasAssets() {
+            return entries.size() > (entries.containsKey("pack.mcmeta") ? 1 : 0);
+        }
+    }
+
+    /**
+     * Puts an output path into the layer of the plugin that owns it. Merged
+     * models combine several plugins and go to the base layer; every layer
+     * keeps its own pack.mcmeta since each is a complete pack.
+     */
+    private void assignToLayer(Map<String, LayerBuild> layerBuilds, String path, List<Contributor> contributors,
+            boolean mergeable, PackEntry entry, String fingerprint) {
+        if (path.equals("pack.mcmeta")) {
+            for (Contributor contributor : contributors) {
+                try {
+                    layerBuilds.get(layerId(contributor.plugin)).add(path, new PackEntry(contributor.file),
+                            manifest.hashSource(contributor.file));
+                } catch (IOException e) {
+                    plugin.getLogger().warning("Failed to hash " + contributor.file + ": " + e.getMessage());
+                }
+            }
+            return;
+        }
+
+        String id = mergeable ? PackLayer.BASE_ID : layerId(contributors.get(0).plugin);
+        layerBuilds.get(id).add(path, entry, fingerprint);
+    }
+
+    /**
+     * Zips every layer whose content changed since the last build and drops
+     * zips of layers that no longer exist.
+     */
+    private List<PackLayer> writeLayers(Map<String, LayerBuild> layerBuilds, boolean deduplicate,
+            Map<String, PackEntry> allEntries) {
+        List<PackLayer> result = new ArrayList<>();
+        if (!layerDir.exists() && !layerDir.mkdirs()) {
+            plugin.getLogger().severe("Failed to create layer directory: " + layerDir.getAbsolutePath());
+            return result;
+        }
+
+        Set<String> ids = new HashSet<>();
+        int rebuilt = 0;
+        for (Map.Entry<String, LayerBuild> entry : layerBuilds.entrySet()) {
+            String id = entry.getKey();
+            LayerBuild build = entry.getValue();
+            if (!build.hasAssets()) {
+                continue;
+            }
+            if (!build.entries.containsKey("pack.mcmeta")) {
+                build.add("pack.mcmeta", new PackEntry(DEFAULT_MCMETA.getBytes(StandardCharsets.UTF_8)), "default");
+            }
+
+            if (deduplicate) {
+                build.fingerprints.put("#deduplicate", "1");
+            }
+
+            String fingerprint = fingerprintOf(build.fingerprints);
+            PackManifest.LayerRecord previous = manifest.getLayer(id);
+
+            String hash;
+            long savedBytes = 0L;
+            if (previous != null && previous.fingerprint.equals(fingerprint) && getLayerFile(previous.hash).exists()) {
+                hash = previous.hash;
+                savedBytes = previous.savedBytes;
+            } else {
+                File tempFile = new File(layerDir, id + ".zip.tmp");
+                try {
+                    // Per layer only: sharing textures across layers would tie their downloads together
+                    if (deduplicate) {
+                        savedBytes = deduplicate(build.entries, allEntries);
+                    }
+                    hash = writePack(build.entries, tempFile);
+                    storeByHash(tempFile, getLayerFile(hash));
+                    rebuilt++;
+                } catch (Exception e) {
+                    plugin.getLogger().severe("Failed to zip layer " + id + ": " + e.getMessage());
+                    tempFile.delete();
+                    manifest.setLayer(id, null, null, 0L);
+                    continue;
+                }
+            }
+
+            manifest.setLayer(id, fingerprint, hash, savedBytes);
+            ids.add(id);
+            result.add(new PackLayer(id, getLayerFile(hash), hash, build.entries.size(), savedBytes));
+        }
+        manifest.retainLayers(ids);
+
+        plugin.getLogger().info("Pack layers: " + result.size() + " (" + rebuilt + " rebuilt)");
+        return result;
+    }
+
+    /**
+     * Drops byte-identical textures from a pack and points the models that used
+     * them at the one copy that is kept. The zip format can't make two entries
+     * share data, so removing duplicates is the only way to save the bytes.
+     *
+     * Only textures that are safe to rename are considered: non-minecraft
+     * item/block textures (vanilla models and atlases reference those by path),
+     * without .mcmeta animation data, not mentioned by any JSON other than a
+     * model's "textures" map, and whose file name appears in no other text file.
+     * The last rule covers formats like OptiFine CIT .properties, which name
+     * textures by relative path or bare file name.
+     *
+     * @param entries entries to deduplicate, modified in place
+     * @param scope   every entry that may reference a texture; references from
+     *                entries outside {@code entries} (another layer) can't be
+     *                rewritten and keep that texture as is
+     * @return bytes of texture data removed
+     */
+    private long deduplicate(Map<String, PackEntry> entries, Map<String, PackEntry> scope) {
+        // 1) Group candidate textures by content
+        Map<String, String> canonicalByContent = new HashMap<>();
+        Map<String, String> remap = new HashMap<>(); // dropped texture id -> kept texture id
+        Map<String, String> droppedPaths = new HashMap<>(); // dropped texture id -> entry path
+        Map<String, String> fileNames = new HashMap<>(); // texture id -> file name without .png
+        for (Map.Entry<String, PackEntry> entry : entries.entrySet()) {
+            String path = entry.getKey();
+            String textureId = dedupableTextureId(path);
+            if (textureId == null || entry.getValue().source == null || entries.containsKey(path + ".mcmeta")) {
+                continue;
+            }
+
+            String contentHash;
+            try {
+                contentHash = manifest.hashSource(entry.getValue().source);
+            } catch (IOException e) {
+                continue;
+            }
+
+            // Entries are sorted, so the first path with some content is always the one kept
+            String canonical = canonicalByContent.putIfAbsent(contentHash, textureId);
+            if (canonical != null) {
+                remap.put(textureId, canonical);
+                droppedPaths.put(textureId, path);
+                fileNames.put(textureId, textureId.substring(textureId.lastIndexOf('/') + 1));
+            }
+        }
+        if (remap.isEmpty()) {
+            return 0L;
+        }
+
+        // 2) Find every model referencing a duplicate; any other mention makes it unsafe
+        Map<String, JsonObject> models = new HashMap<>();
+        Set<String> unsafe = new HashSet<>();
+        for (Map.Entry<String, PackEntry> entry : scope.entrySet()) {
+            String path = entry.getKey();
+            boolean isJson = path.endsWith(".json");
+            if (!isJson && !isTextEntry(path)) {
+                continue;
+            }
+            boolean own = entries.get(path) == entry.getValue();
+
+            String text;
+            try {
+                text = new String(entry.getValue().readBytes(), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                continue;
+            }
+
+            if (!isJson) {
+                // Other formats may use relative paths, so any mention of the file name counts
+                for (String textureId : remap.keySet()) {
+                    if (text.contains(fileNames.get(textureId))) {
+                        unsafe.add(textureId);
+                    }
+                }
+                continue;
+            }
+
+            JsonObject textures = null;
+            JsonObject model = null;
+            if (own && path.contains("/models/")) {
+                try {
+                    JsonElement json = new JsonParser().parse(text);
+                    if (json != null && json.isJsonObject()) {
+                        model = json.getAsJsonObject();
+                        if (model.has("textures") && model.get("textures").isJsonObject()) {
+                            textures = model.getAsJsonObject("textures");
+                        }
+                    }
+                } catch (Exception ignored) {
+                    // Unreadable model: fall through to the plain text check
+                }
+            }
+
+            for (String textureId : remap.keySet()) {
+                if (!text.contains(textureId)) {
+                    continue;
+                }
+                if (textures != null && referencesOnlyInTextures(model, textures, textureId)) {
+                    models.put(path, model);
+                } else {
+                    unsafe.add(textureId);
+                }
+            }
+        }
+        remap.keySet().removeAll(unsafe);
+        if (remap.isEmpty()) {
+            return 0L;
+        }
+
+        // 3) Rewrite the models, then drop the duplicates
+        for (Map.Entry<String, JsonObject> entry : models.entrySet()) {
+            JsonObject textures = entry.getValue().getAsJsonObject("textures");
+            boolean changed = false;
+            for (Map.Entry<String, JsonElement> texture : textures.entrySet()) {
+                JsonElement value = texture.getValue();
+                if (value.isJsonPrimitive() && remap.containsKey(value.getAsString())) {
+                    texture.setValue(new com.google.gson.JsonPrimitive(remap.get(value.getAsString())));
+                    changed = true;
+                }
+            }
+            if (changed) {
+                entries.put(entry.getKey(), new PackEntry(gson.toJson(entry.getValue()).getBytes(StandardCharsets.UTF_8)));
+            }
+        }
+
+        long saved = 0L;
+        for (String textureId : remap.keySet()) {
+            PackEntry removed = entries.remove(droppedPaths.get(textureId));
+            if (removed != null && removed.source != null) {
+                saved += removed.source.length();
+            }
+        }
+        return saved;
+    }
+
+    /**
+     * @return true for entries that may reference textures in text: anything
+     *         except images, sounds, fonts and other known binary formats
+     */
+    private boolean isTextEntry(String path) {
+        String lower = path.toLowerCase(Locale.ROOT);
+        return !(lower.endsWith(".png") || lower.endsWith(".ogg") || lower.endsWith(".ttf")
+                || lower.endsWith(".otf") || lower.endsWith(".bin") || lower.endsWith(".zip")
+                || lower.endsWith(".jpg") || lower.endsWith(".psd"));
+    }
+
+    /**
+     * Maps assets/&lt;ns&gt;/textures/(item|block)/&lt;name&gt;.png to its texture id
+     * "&lt;ns&gt;:(item|block)/&lt;name&gt;", or null if the path is not a candidate.
+     */
+    private String dedupableTextureId(String path) {
+        if (!path.startsWith("assets/") || !path.endsWith(".png")) {
+            return null;
+        }
+        int nsEnd = path.indexOf('/', 7);
+        if (nsEnd == -1) {
+            return null;
+        }
+        String namespace = path.substring(7, nsEnd);
+        String rest = path.substring(nsEnd + 1);
+        if (namespace.equals("minecraft") || !rest.startsWith("textures/")) {
+            return null;
+        }
+        String name = rest.substring("textures/".length(), rest.length() - 4);
+        if (!name.startsWith("item/") && !name.startsWith("block/")) {
+            return null;
+        }
+        return namespace + ":" + name;
+    }
+
+    /**
+     * Checks that a model mentions a texture id only as a value of its
+     * "textures" map, so rewriting that map covers every reference.
+     */
+    private boolean referencesOnlyInTextures(JsonObject model, JsonObject textures, String textureId) {
+        JsonObject rest = new JsonObject();
+        for (Map.Entry<String, JsonElement> entry : model.entrySet()) {
+            if (!entry.getKey().equals("textures")) {
+                rest.add(entry.getKey(), entry.getValue());
+            }
+        }
+        if (gson.toJson(rest).contains(textureId)) {
+            return false;
+        }
+        for (Map.Entry<String, JsonElement> entry : textures.entrySet()) {
+            JsonElement value = entry.getValue();
+            if (!value.isJsonPrimitive() && gson.toJson(value).contains(textureId)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Swaps in the layers of a finished build and remembers which pack ids
+     * players may still hold from before, so delivery can remove them.
+     */
+    private void publishLayers(List<PackLayer> newLayers, boolean layered) {
+        Set<UUID> current = new HashSet<>();
+        Map<String, PackLayer> byHash = new HashMap<>();
+        for (PackLayer layer : newLayers) {
+            current.add(layer.getUuid());
+            byHash.put(layer.getHash(), layer);
+        }
+
+        Set<UUID> retired = new HashSet<>(retiredPackIds);
+        for (PackLayer layer : layers) {
+            retired.add(layer.getUuid());
+        }
+        if (layered) {
+            // The merged pack is replaced by its layers
+            retired.add(PackDelivery.PACK_ID);
+        }
+        retired.removeAll(current);
+
+        this.layersByHash = byHash;
+        this.layers = Collections.unmodifiableList(newLayers);
+        this.retiredPackIds = Collections.unmodifiableSet(retired);
+    }
+
+    /**
+     * Forces the next build to reprocess every file.
+     */
+    public void invalidateBuildCache() {
+        buildExecutor.execute(() -> {
+            manifest.clear();
+            mergedOutputs = new HashMap<>();
+        });
+        dirty = true;
     }
 
     private void createDefaultMcmeta(File dir) {
         File mcmeta = new File(dir, "pack.mcmeta");
         try (FileWriter writer = new FileWriter(mcmeta)) {
-            writer.write("{\n" +
-                    "  \"pack\": {\n" +
-                    "    \"pack_format\": 15,\n" +
-                    "    \"description\": \"CuriosPaper Generated Pack\"\n" +
-                    "  }\n" +
-                    "}");
+            writer.write(DEFAULT_MCMETA);
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -385,167 +1428,241 @@ public class ResourcePackManager {
         dir.delete();
     }
 
-    private void copyFolderStrict(Plugin plugin, File source, File target) throws IOException {
-        if (source.isDirectory()) {
-            if (!target.exists())
-                target.mkdirs();
+    private static class Contributor {
+        final Plugin plugin;
+        final File file;
 
-            for (File f : Objects.requireNonNull(source.listFiles())) {
-                copyFolderStrict(plugin, f, new File(target, f.getName()));
-            }
-
-            return;
+        Contributor(Plugin plugin, File file) {
+            this.plugin = plugin;
+            this.file = file;
         }
+    }
 
-        // File
-        if (target.exists()) {
-            handleConflict(plugin, source, target);
+    private void collectFiles(Plugin owner, File root, File current,
+            Map<String, List<Contributor>> contributions) throws IOException {
+        if (current.isDirectory()) {
+            File[] children = current.listFiles();
+            if (children == null)
+                throw new IOException("Cannot list " + current.getPath());
+            Arrays.sort(children);
+            for (File child : children) {
+                collectFiles(owner, root, child, contributions);
+            }
             return;
         }
 
-        Files.copy(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        String path = root.toPath().relativize(current.toPath()).toString().replace("\\", "/");
+        contributions.computeIfAbsent(path, k -> new ArrayList<>()).add(new Contributor(owner, current));
     }
 
-    private void handleConflict(Plugin conflictingPlugin, File src, File dest) throws IOException {
-        String path = dest.getPath().replace("\\", "/");
+    /**
+     * A file of the virtual pack tree: streamed straight from a source file, or
+     * produced in memory (merged models, generated mcmeta).
+     */
+    private static class PackEntry {
+        final File source;
+        final byte[] data;
 
-        // Reject everything EXCEPT curated mergeable files
-        if (isMergeableJson(path)) {
-            mergeOverrideModels(src, dest);
-            return;
+        PackEntry(File source) {
+            this.source = source;
+            this.data = null;
         }
 
-        conflictLog.add("CONFLICT: " + path +
-                " | Existing owner: " + findOwnerByPath(path) +
-                " | Conflicting plugin: " + conflictingPlugin.getName());
+        PackEntry(byte[] data) {
+            this.source = null;
+            this.data = data;
+        }
 
-        // keep first file, skip conflicting one
+        byte[] readBytes() throws IOException {
+            return data != null ? data : Files.readAllBytes(source.toPath());
+        }
+
+        void writeTo(OutputStream out) throws IOException {
+            if (data != null) {
+                out.write(data);
+            } else {
+                Files.copy(source.toPath(), out);
+            }
+        }
     }
 
-    private boolean isMergeableJson(String path) {
-        return path.endsWith("curios_combined_override.json")
-                || path.endsWith("curios_item_base.json");
+    private static class MergedOutput {
+        final String fingerprint;
+        final byte[] data;
+
+        MergedOutput(String fingerprint, byte[] data) {
+            this.fingerprint = fingerprint;
+            this.data = data;
+        }
     }
 
     /**
-     * Merge curated override JSON models:
-     * - Keeps dest as base
-     * - Appends src "overrides" entries into dest "overrides"
-     * - Does NOT touch other keys
+     * Merges every contributor of a mergeable model in one pass: each file is
+     * parsed once, all "overrides" are gathered, duplicate predicates are
+     * dropped (the first contributor wins, as with any other contested file),
+     * the rest is ordered by custom_model_data and the model is serialized once.
+     * Every key other than "overrides" comes from the first contributor.
      */
-    private void mergeOverrideModels(File src, File dest) throws IOException {
-        JsonElement destJson;
-        JsonElement srcJson;
+    private byte[] mergeContributors(String path, List<Contributor> contributors) throws IOException {
+        JsonObject base = null;
+        List<JsonElement> overrides = new ArrayList<>();
+        Set<String> seenPredicates = new HashSet<>();
+        int duplicates = 0;
+
+        for (Contributor contributor : contributors) {
+            JsonElement json;
+            try (Reader reader = new InputStreamReader(new FileInputStream(contributor.file), StandardCharsets.UTF_8)) {
+                json = new JsonParser().parse(reader);
+            }
+            if (json == null || !json.isJsonObject()) {
+                plugin.getLogger().warning("Cannot merge override model (non-object JSON): " + path + " from "
+                        + contributor.plugin.getName());
+                continue;
+            }
 
-        try (Reader destReader = new FileReader(dest);
-                Reader srcReader = new FileReader(src)) {
+            JsonObject model = json.getAsJsonObject();
+            if (base == null) {
+                base = model;
+            }
+            if (!model.has("overrides") || !model.get("overrides").isJsonArray()) {
+                continue;
+            }
 
-            destJson = new com.google.gson.JsonParser().parse(destReader);
-            srcJson = new com.google.gson.JsonParser().parse(srcReader);
+            for (JsonElement override : model.getAsJsonArray("overrides")) {
+                if (!seenPredicates.add(predicateKey(override))) {
+                    duplicates++;
+                    continue;
+                }
+                overrides.add(override);
+            }
         }
 
-        if (!destJson.isJsonObject() || !srcJson.isJsonObject()) {
-            plugin.getLogger().warning("Cannot merge override model (non-object JSON): " + dest.getPath());
-            return;
+        if (base == null) {
+            return Files.readAllBytes(contributors.get(0).file.toPath());
         }
 
-        JsonObject destObj = destJson.getAsJsonObject();
-        JsonObject srcObj = srcJson.getAsJsonObject();
+        // Stable sort: overrides without custom_model_data keep their relative order up front
+        overrides.sort(Comparator.comparingDouble(ResourcePackManager::customModelData));
+        JsonArray merged = new JsonArray();
+        for (JsonElement override : overrides) {
+            merged.add(override);
+        }
+        base.add("overrides", merged);
 
-        JsonArray destOverrides;
-        if (destObj.has("overrides") && destObj.get("overrides").isJsonArray()) {
-            destOverrides = destObj.getAsJsonArray("overrides");
-        } else {
-            destOverrides = new JsonArray();
-            destObj.add("overrides", destOverrides);
+        plugin.getLogger().info("Merged override JSON: " + path + " (" + contributors.size() + " contributors, "
+                + overrides.size() + " overrides" + (duplicates > 0 ? ", " + duplicates + " duplicate predicates dropped" : "")
+                + ")");
+        return gson.toJson(base).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Canonical form of an override's predicate, independent of key order.
+     */
+    private String predicateKey(JsonElement override) {
+        if (!override.isJsonObject()) {
+            return gson.toJson(override);
+        }
+        JsonElement predicate = override.getAsJsonObject().get("predicate");
+        if (predicate == null || !predicate.isJsonObject()) {
+            return gson.toJson(override);
         }
 
-        if (srcObj.has("overrides") && srcObj.get("overrides").isJsonArray()) {
-            JsonArray srcOverrides = srcObj.getAsJsonArray("overrides");
-            for (JsonElement el : srcOverrides) {
-                destOverrides.add(el);
-            }
+        Map<String, String> sorted = new TreeMap<>();
+        for (Map.Entry<String, JsonElement> entry : predicate.getAsJsonObject().entrySet()) {
+            sorted.put(entry.getKey(), gson.toJson(entry.getValue()));
         }
+        return sorted.toString();
+    }
 
-        try (Writer writer = new FileWriter(dest)) {
-            gson.toJson(destObj, writer);
+    private static double customModelData(JsonElement override) {
+        if (override.isJsonObject()) {
+            JsonElement predicate = override.getAsJsonObject().get("predicate");
+            if (predicate != null && predicate.isJsonObject()) {
+                JsonElement value = predicate.getAsJsonObject().get("custom_model_data");
+                if (value != null && value.isJsonPrimitive() && value.getAsJsonPrimitive().isNumber()) {
+                    return value.getAsDouble();
+                }
+            }
         }
+        return Double.NEGATIVE_INFINITY;
+    }
 
-        plugin.getLogger().info("Merged override JSON: " + dest.getPath());
+    /**
+     * Records a contested non-mergeable path. The first contributor keeps the
+     * file, every later one is skipped.
+     */
+    private void recordConflicts(ConflictReport conflicts, String path, List<Contributor> contributors) {
+        String namespace = namespaceOf(path);
+        String owner = contributors.get(0).plugin.getName();
+        for (int i = 1; i < contributors.size(); i++) {
+            conflicts.add(new PackConflict(PackConflict.Type.FILE, namespace, path, owner,
+                    contributors.get(i).plugin.getName()));
+        }
     }
 
     /**
-     * Try to find which plugin owns the existing file at 'path' by matching
-     * relative paths against each registered source.
+     * @return the namespace of an assets/&lt;ns&gt;/... path, or null for root files
      */
-    private String findOwnerByPath(String path) {
-        try {
-            Path destPath = Paths.get(path);
-            Path root = resourcePackDir.toPath();
+    private static String namespaceOf(String path) {
+        if (!path.startsWith("assets/")) {
+            return null;
+        }
+        int end = path.indexOf('/', 7);
+        return end == -1 ? null : path.substring(7, end);
+    }
 
-            Path rel;
-            try {
-                rel = root.relativize(destPath);
-            } catch (IllegalArgumentException e) {
-                // Not under our root (shouldn't happen)
-                return "Unknown";
+    /**
+     * File conflicts of one build plus the namespace ownership index they were
+     * resolved against. Only the first conflicts are kept; the total and the
+     * per-namespace counts cover all of them.
+     */
+    public static class ConflictReport {
+        private static final String ROOT = "(root)";
+
+        private final List<PackConflict> conflicts = new ArrayList<>();
+        private final Map<String, Integer> conflictsByNamespace = new TreeMap<>();
+        private final Map<String, Map<String, Integer>> filesByNamespace = new TreeMap<>();
+        private int total = 0;
+
+        void add(PackConflict conflict) {
+            total++;
+            String namespace = conflict.getNamespace() != null ? conflict.getNamespace() : ROOT;
+            conflictsByNamespace.merge(namespace, 1, Integer::sum);
+            if (conflicts.size() < MAX_TRACKED_CONFLICTS) {
+                conflicts.add(conflict);
             }
+        }
 
-            for (Map.Entry<Plugin, File> entry : registeredSources.entrySet()) {
-                Plugin pl = entry.getKey();
-                File srcRoot = entry.getValue();
+        void countFile(String namespace, String owner) {
+            filesByNamespace.computeIfAbsent(namespace != null ? namespace : ROOT, k -> new TreeMap<>())
+                    .merge(owner, 1, Integer::sum);
+        }
 
-                File candidate = new File(srcRoot, rel.toString());
-                if (candidate.exists()) {
-                    return pl.getName();
-                }
-            }
-        } catch (Exception e) {
-            // ignore, fall through
+        public List<PackConflict> getConflicts() {
+            return Collections.unmodifiableList(conflicts);
         }
-        return "Unknown";
-    }
 
-    private void zipDirectory(File sourceDir, File zipFile) throws IOException {
-        try (FileOutputStream fos = new FileOutputStream(zipFile);
-                ZipOutputStream zos = new ZipOutputStream(fos)) {
+        public int getTotal() {
+            return total;
+        }
 
-            Path sourcePath = sourceDir.toPath();
-            Files.walkFileTree(sourcePath, new SimpleFileVisitor<Path>() {
-                @Override
-                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-                    zos.putNextEntry(new ZipEntry(sourcePath
-                            .relativize(file)
-                            .toString()
-                            .replace("\\", "/")));
-                    Files.copy(file, zos);
-                    zos.closeEntry();
-                    return FileVisitResult.CONTINUE;
-                }
-            });
+        /**
+         * @return namespace -> number of file conflicts in it
+         */
+        public Map<String, Integer> getConflictsByNamespace() {
+            return Collections.unmodifiableMap(conflictsByNamespace);
         }
-    }
 
-    private String calculateSha1(File file) {
-        try (FileInputStream fis = new FileInputStream(file)) {
-            MessageDigest digest = MessageDigest.getInstance("SHA-1");
-            byte[] buffer = new byte[8192];
-            int n;
-            while ((n = fis.read(buffer)) != -1) {
-                digest.update(buffer, 0, n);
-            }
-            byte[] hash = digest.digest();
-            StringBuilder hexString = new StringBuilder();
-            for (byte b : hash) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1)
-                    hexString.append('0');
-                hexString.append(hex);
-            }
-            return hexString.toString();
-        } catch (Exception e) {
-            e.printStackTrace();
-            return null;
+        /**
+         * @return namespace -> plugin -> number of files it contributes
+         */
+        public Map<String, Map<String, Integer>> getFilesByNamespace() {
+            return Collections.unmodifiableMap(filesByNamespace);
         }
     }
+
+    private boolean isMergeableJson(String path) {
+        return path.endsWith("curios_combined_override.json")
+                || path.endsWith("curios_item_base.json");
+    }
 }
@@ -1,36 +1,82 @@
 package org.bg52.curiospaper.resourcepack;
 
+import com.sun.net.httpserver.Headers;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
 import org.bg52.curiospaper.CuriosPaper;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.InetSocketAddress;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class ResourcePackServer implements ResourcePackHost {
     private final CuriosPaper plugin;
     private final int port;
-    private final File packFile;
+    private final ResourcePackManager manager;
     private HttpServer server;
+    private ThreadPoolExecutor executor;
+    // Runs requests the pool had no room for, only to answer them 503, so the
+    // HttpServer dispatcher never serves a download itself
+    private ThreadPoolExecutor overflow;
+    private volatile Thread overflowThread;
 
-    public ResourcePackServer(CuriosPaper plugin, int port, File packFile) {
+    // Pack bytes held in memory and shared by every download; reloaded only when
+    // the pack hash changes
+    private volatile CachedPack cachedPack;
+    // Same for pack layers, keyed by layer hash
+    private final Map<String, CachedPack> cachedLayers = new ConcurrentHashMap<>();
+
+    public ResourcePackServer(CuriosPaper plugin, int port, ResourcePackManager manager) {
         this.plugin = plugin;
         this.port = port;
-        this.packFile = packFile;
+        this.manager = manager;
     }
 
     public void start() {
         try {
+            int threads = Math.max(1, plugin.getConfig().getInt("resource-pack.server-threads", 8));
+            AtomicInteger threadId = new AtomicInteger();
+            executor = new ThreadPoolExecutor(threads, threads, 30L, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(512), r -> {
+                        Thread thread = new Thread(r, "CuriosPaper-PackServer-" + threadId.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }, new ThreadPoolExecutor.AbortPolicy());
+            executor.allowCoreThreadTimeOut(true);
+            overflow = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(64), r -> {
+                        Thread thread = new Thread(r, "CuriosPaper-PackServer-Overflow");
+                        thread.setDaemon(true);
+                        overflowThread = thread;
+                        return thread;
+                    }, new ThreadPoolExecutor.DiscardPolicy());
+
             server = HttpServer.create(new InetSocketAddress(port), 0);
-            server.createContext("/pack.zip", new PackHandler());
-            server.setExecutor(null); // creates a default executor
+            PackHandler handler = new PackHandler();
+            server.createContext(PackHttp.LEGACY_PATH, handler);
+            server.createContext(PackHttp.VERSIONED_PREFIX, handler);
+            server.setExecutor(task -> {
+                try {
+                    executor.execute(task);
+                } catch (RejectedExecutionException e) {
+                    // Beyond even this queue the connection is dropped unanswered
+                    overflow.execute(task);
+                }
+            });
             server.start();
-            plugin.getLogger().info("Resource pack server started on port " + port);
+            plugin.getLogger().info("Resource pack server started on port " + port + " (" + threads + " threads)");
         } catch (IOException e) {
             plugin.getLogger().severe("Failed to start resource pack server: " + e.getMessage());
             e.printStackTrace();
@@ -42,36 +88,203 @@ public class ResourcePackServer implements ResourcePackHost {
             server.stop(0);
             plugin.getLogger().info("Resource pack server stopped.");
         }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        if (overflow != null) {
+            overflow.shutdownNow();
+        }
+        cachedPack = null;
+        cachedLayers.clear();
     }
 
     public int getPort() {
         return port;
     }
 
+    private static class CachedPack {
+        final String hash;
+        final byte[] data;
+        final long lastModified;
+
+        CachedPack(String hash, byte[] data, long lastModified) {
+            this.hash = hash;
+            this.data = data;
+            this.lastModified = lastModified;
+        }
+    }
+
+    /**
+     * Returns the pack bytes for the current hash, loading them from disk only
+     * after a rebuild changed the hash. The bytes are read from the file named
+     * by that same hash, so they always match the hash they are cached under.
+     * The file is read into the heap rather than memory-mapped so the builder
+     * can still delete it on Windows once it is retired.
+     */
+    private CachedPack currentPack() throws IOException {
+        String hash = manager.getPackHash();
+        CachedPack pack = cachedPack;
+        if (pack != null && Objects.equals(pack.hash, hash)) {
+            return pack;
+        }
+
+        synchronized (this) {
+            pack = cachedPack;
+            if (pack != null && Objects.equals(pack.hash, hash)) {
+                return pack;
+            }
+
+            File packFile = manager.getPackFile(hash);
+            pack = readPack(hash, packFile);
+            if (pack != null) {
+                cachedPack = pack;
+            }
+            return pack;
+        }
+    }
+
+    /**
+     * Resolves a request path to the merged pack or, for a versioned path
+     * naming a layer hash, to that layer.
+     */
+    private CachedPack resolvePack(String path) throws IOException {
+        String requested = PackHttp.hashFromPath(path);
+        if (requested != null && !requested.equals(manager.getPackHash())) {
+            PackLayer layer = manager.getLayerByHash(requested);
+            return layer != null ? layerPack(layer) : null;
+        }
+
+        CachedPack pack = currentPack();
+        return pack != null && PackHttp.isPackPath(path, pack.hash) ? pack : null;
+    }
+
+    private CachedPack layerPack(PackLayer layer) throws IOException {
+        CachedPack pack = cachedLayers.get(layer.getHash());
+        if (pack != null) {
+            return pack;
+        }
+
+        synchronized (cachedLayers) {
+            pack = cachedLayers.get(layer.getHash());
+            if (pack != null) {
+                return pack;
+            }
+
+            // Drop layers a rebuild has replaced
+            cachedLayers.keySet().removeIf(hash -> manager.getLayerByHash(hash) == null);
+
+            // The layer file is named by its hash, like the merged pack
+            pack = readPack(layer.getHash(), layer.getFile());
+            if (pack != null) {
+                cachedLayers.put(layer.getHash(), pack);
+            }
+            return pack;
+        }
+    }
+
+    /**
+     * @return the file's bytes, or null if there is no file or a build has
+     *         retired and deleted it in the meantime
+     */
+    private static CachedPack readPack(String hash, File file) throws IOException {
+        if (file == null) {
+            return null;
+        }
+        try {
+            long lastModified = file.lastModified();
+            return new CachedPack(hash, Files.readAllBytes(file.toPath()), lastModified);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Serves the pack under /pack.zip (always current, must revalidate) and
+     * /pack/&lt;sha1&gt;.zip (immutable; the merged pack or a layer). Supports ETag/If-None-Match and single
+     * byte ranges so interrupted downloads resume and proxies can cache.
+     */
     private class PackHandler implements HttpHandler {
         @Override
         public void handle(HttpExchange t) throws IOException {
-            if (!packFile.exists()) {
-                String response = "Resource pack not found.";
-                t.sendResponseHeaders(404, response.length());
-                OutputStream os = t.getResponseBody();
-                os.write(response.getBytes());
-                os.close();
-                return;
-            }
+            try {
+                if (Thread.currentThread() == overflowThread) {
+                    // Every download thread is busy and the queue is full
+                    t.getResponseHeaders().set("Retry-After", "5");
+                    t.sendResponseHeaders(503, -1);
+                    return;
+                }
+
+                String method = t.getRequestMethod();
+                boolean head = "HEAD".equalsIgnoreCase(method);
+                if (!head && !"GET".equalsIgnoreCase(method)) {
+                    t.getResponseHeaders().set("Allow", "GET, HEAD");
+                    t.sendResponseHeaders(405, -1);
+                    return;
+                }
+
+                String path = t.getRequestURI().getPath();
+                CachedPack pack = resolvePack(path);
+                if (pack == null) {
+                    String response = "Resource pack not found.";
+                    t.sendResponseHeaders(404, response.length());
+                    OutputStream os = t.getResponseBody();
+                    os.write(response.getBytes());
+                    os.close();
+                    return;
+                }
+
+                Headers headers = t.getResponseHeaders();
+                headers.set("Content-Type", "application/zip");
+                headers.set("Accept-Ranges", "bytes");
+                headers.set("Last-Modified", PackHttp.httpDate(pack.lastModified));
+                headers.set("Cache-Control",
+                        PackHttp.isVersionedPath(path) ? PackHttp.CACHE_IMMUTABLE : PackHttp.CACHE_REVALIDATE);
+
+                String etag = pack.hash != null ? PackHttp.etag(pack.hash) : null;
+                if (etag != null) {
+                    headers.set("ETag", etag);
+                    if (PackHttp.notModified(t.getRequestHeaders().getFirst("If-None-Match"), etag)) {
+                        t.sendResponseHeaders(304, -1);
+                        return;
+                    }
+                }
+
+                int length = pack.data.length;
+                long[] range = PackHttp.parseRange(t.getRequestHeaders().getFirst("Range"), length);
+                String ifRange = t.getRequestHeaders().getFirst("If-Range");
+                if (range != null && ifRange != null && !ifRange.equals(etag)) {
+                    range = null; // pack changed since the partial download started
+                }
+
+                if (range != null && range[0] < 0) {
+                    headers.set("Content-Range", "bytes */" + length);
+                    t.sendResponseHeaders(416, -1);
+                    return;
+                }
+
+                int status = 200;
+                int offset = 0;
+                int count = length;
+                if (range != null) {
+                    status = 206;
+                    offset = (int) range[0];
+                    count = (int) (range[1] - range[0] + 1);
+                    headers.set("Content-Range", "bytes " + range[0] + "-" + range[1] + "/" + length);
+                }
 
-            t.getResponseHeaders().add("Content-Type", "application/zip");
-            t.sendResponseHeaders(200, packFile.length());
+                if (head) {
+                    headers.set("Content-Length", String.valueOf(count));
+                    t.sendResponseHeaders(status, -1);
+                    return;
+                }
 
-            OutputStream os = t.getResponseBody();
-            FileInputStream fs = new FileInputStream(packFile);
-            final byte[] buffer = new byte[0x10000];
-            int count = 0;
-            while ((count = fs.read(buffer)) >= 0) {
-                os.write(buffer, 0, count);
+                t.sendResponseHeaders(status, count);
+                try (OutputStream os = t.getResponseBody()) {
+                    os.write(pack.data, offset, count);
+                }
+            } finally {
+                t.close();
             }
-            fs.close();
-            os.close();
         }
     }
 }
@@ -448,4 +448,116 @@ public class VersionUtil {
             meta.setCustomModelData(customModelData);
         }
     }
+
+    // Resource pack overloads, resolved once
+    private static boolean resourcePackMethodsResolved = false;
+    private static java.lang.reflect.Method setResourcePackWithId;
+    private static java.lang.reflect.Method setResourcePackWithPrompt;
+    private static java.lang.reflect.Method addResourcePackWithId;
+    private static java.lang.reflect.Method removeResourcePackById;
+
+    private static void resolveResourcePackMethods() {
+        if (resourcePackMethodsResolved)
+            return;
+        resourcePackMethodsResolved = true;
+
+        Class<?> playerClass = org.bukkit.entity.Player.class;
+        if (isAtLeast(1, 20, 3)) {
+            try {
+                // setResourcePack(UUID id, String url, byte[] hash, String prompt, boolean force)
+                setResourcePackWithId = playerClass.getMethod("setResourcePack", java.util.UUID.class,
+                        String.class, byte[].class, String.class, boolean.class);
+                addResourcePackWithId = playerClass.getMethod("addResourcePack", java.util.UUID.class,
+                        String.class, byte[].class, String.class, boolean.class);
+                removeResourcePackById = playerClass.getMethod("removeResourcePack", java.util.UUID.class);
+            } catch (Exception e) {
+                setResourcePackWithId = null;
+                addResourcePackWithId = null;
+                removeResourcePackById = null;
+            }
+        }
+        if (isAtLeast(1, 17)) {
+            try {
+                // setResourcePack(String url, byte[] hash, String prompt, boolean force)
+                setResourcePackWithPrompt = playerClass.getMethod("setResourcePack", String.class, byte[].class,
+                        String.class, boolean.class);
+            } catch (Exception e) {
+                setResourcePackWithPrompt = null;
+            }
+        }
+    }
+
+    /**
+     * Sends a resource pack with its SHA-1 using the richest overload the server
+     * has: id + prompt + force on 1.20.3+, prompt + force on 1.17+, otherwise
+     * the 1.14 (url, hash) form. The hash lets clients reuse a cached download.
+     *
+     * @param player The player to send the pack to
+     * @param id     Stable pack id (1.20.3+); re-sending the same id replaces the
+     *               pack instead of stacking it
+     * @param url    Download URL
+     * @param hash   20-byte SHA-1 of the pack
+     * @param prompt Prompt shown to the player, or null for the default
+     * @param force  Whether declining kicks the player (1.17+)
+     */
+    public static void sendResourcePack(org.bukkit.entity.Player player, java.util.UUID id, String url,
+            byte[] hash, String prompt, boolean force) {
+        resolveResourcePackMethods();
+
+        try {
+            if (setResourcePackWithId != null && id != null) {
+                setResourcePackWithId.invoke(player, id, url, hash, prompt, force);
+                return;
+            }
+            if (setResourcePackWithPrompt != null) {
+                setResourcePackWithPrompt.invoke(player, url, hash, prompt, force);
+                return;
+            }
+        } catch (Exception e) {
+            org.bukkit.Bukkit.getLogger().warning(
+                    "[CuriosPaper] Failed to send resource pack via reflection: " + e.getMessage());
+        }
+
+        player.setResourcePack(url, hash);
+    }
+
+    /**
+     * Check if clients can hold several server resource packs at once
+     * (Player.addResourcePack / removeResourcePack, 1.20.3+)
+     */
+    public static boolean supportsMultipleResourcePacks() {
+        resolveResourcePackMethods();
+        return addResourcePackWithId != null && removeResourcePackById != null;
+    }
+
+    /**
+     * Adds a pack on top of the player's other server packs, replacing the pack
+     * with the same id if they already have it. Only call when
+     * {@link #supportsMultipleResourcePacks()} is true.
+     */
+    public static void addResourcePack(org.bukkit.entity.Player player, java.util.UUID id, String url, byte[] hash,
+            String prompt, boolean force) {
+        resolveResourcePackMethods();
+        try {
+            addResourcePackWithId.invoke(player, id, url, hash, prompt, force);
+        } catch (Exception e) {
+            org.bukkit.Bukkit.getLogger().warning(
+                    "[CuriosPaper] Failed to add resource pack via reflection: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Removes a server pack by id. A no-op for packs the player doesn't have.
+     */
+    public static void removeResourcePack(org.bukkit.entity.Player player, java.util.UUID id) {
+        resolveResourcePackMethods();
+        if (removeResourcePackById == null)
+            return;
+        try {
+            removeResourcePackById.invoke(player, id);
+        } catch (Exception e) {
+            org.bukkit.Bukkit.getLogger().warning(
+                    "[CuriosPaper] Failed to remove resource pack via reflection: " + e.getMessage());
+        }
+    }
 }